@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.common.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * org.neptune.common.util - CoarseClock
+ * 粗粒度时钟: 一个后台 ticker 线程每隔 tickMillis 把 System.currentTimeMillis() 缓存到一个 volatile 字段,
+ * 读取时间只是一次 volatile 读, 适合空闲检测这类每条消息都要记录时间、但只需要毫秒到十毫秒级精度的场景.
+ * <p>
+ * 精度由 -Dneptune.clock.tickMillis 控制, 默认 10ms; 需要精确时间的地方依然应该直接使用 System.currentTimeMillis()/nanoTime()
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:10
+ */
+public final class CoarseClock {
+
+    private static final long TICK_MILLIS = Math.max(1, SysPropertyUtil.getLong("neptune.clock.tickMillis", 10));
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(CoarseClock::tick, "neptune.coarse.clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    /**
+     * 缓存的当前时间(毫秒), 最多落后真实时间一个 tick
+     */
+    public static long currentTimeMillis() {
+        return now;
+    }
+
+    public static long tickMillis() {
+        return TICK_MILLIS;
+    }
+
+    private static void tick() {
+        final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        for (;;) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+}
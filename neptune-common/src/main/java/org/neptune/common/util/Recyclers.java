@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.common.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * org.neptune.common.util - Recyclers
+ * 轻量级对象池, 参考 netty Recycler:
+ * <p>
+ * 1. 每个线程持有一个栈, 同线程 get/recycle 无任何同步开销;
+ * 2. 其他线程回收的对象进入所属栈的一个无锁链表(Treiber stack), 所属线程在本地栈为空时一次性取回;
+ * 3. 本地栈容量与跨线程待取回数量都是有上限的, 超出的对象直接交给 GC, 不会无限膨胀;
+ * 4. 同一对象重复回收会抛出 IllegalStateException.
+ * <p>
+ * 通过 -Dneptune.recyclers.maxCapacityPerThread=0 可以关闭对象池(每次都 new)
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 11:20
+ */
+public abstract class Recyclers<T> {
+
+    private static final int DEFAULT_MAX_CAPACITY_PER_THREAD = 4 * 1024;
+    private static final int MAX_CAPACITY_PER_THREAD;
+    private static final int INITIAL_CAPACITY = 256;
+
+    static {
+        int maxCapacity = SysPropertyUtil.getInt("neptune.recyclers.maxCapacityPerThread", DEFAULT_MAX_CAPACITY_PER_THREAD);
+        MAX_CAPACITY_PER_THREAD = Math.max(0, maxCapacity);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final Handle NOOP_HANDLE = object -> {
+        // 关闭对象池时什么都不做
+    };
+
+    private final int maxCapacity;
+    private final int maxPending;
+
+    private final ThreadLocal<Stack<T>> threadLocal = new ThreadLocal<Stack<T>>() {
+
+        @Override
+        protected Stack<T> initialValue() {
+            return new Stack<>(Thread.currentThread(), maxCapacity, maxPending);
+        }
+    };
+
+    protected Recyclers() {
+        this(MAX_CAPACITY_PER_THREAD);
+    }
+
+    protected Recyclers(int maxCapacity) {
+        this.maxCapacity = Math.max(0, maxCapacity);
+        // 跨线程回收最多只暂存本地容量的一半, 防止生产-消费速率不一致时对象堆积
+        this.maxPending = Math.max(1, this.maxCapacity >>> 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public final T get() {
+        if (maxCapacity == 0) {
+            return newObject((Handle<T>) NOOP_HANDLE);
+        }
+        Stack<T> stack = threadLocal.get();
+        DefaultHandle<T> handle = stack.pop();
+        if (handle == null) {
+            handle = new DefaultHandle<>(stack);
+            handle.value = newObject(handle);
+        }
+        return handle.value;
+    }
+
+    /**
+     * 创建一个新的对象, 实现类需要持有 handle, 在对象使用完毕后调用 {@link Handle#recycle(Object)}
+     */
+    protected abstract T newObject(Handle<T> handle);
+
+    public interface Handle<T> {
+
+        void recycle(T object);
+    }
+
+    private static final class DefaultHandle<T> implements Handle<T> {
+
+        private static final int STATE_IN_USE = 0;
+        private static final int STATE_RECYCLED = 1;
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<DefaultHandle> stateUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(DefaultHandle.class, "state");
+
+        private final Stack<T> stack;
+        private volatile int state = STATE_IN_USE;
+        private DefaultHandle<T> next; // 跨线程回收链表的后继节点
+
+        T value;
+
+        DefaultHandle(Stack<T> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public void recycle(T object) {
+            if (object != value) {
+                throw new IllegalArgumentException("object does not belong to handle");
+            }
+            if (!stateUpdater.compareAndSet(this, STATE_IN_USE, STATE_RECYCLED)) {
+                throw new IllegalStateException("recycled already");
+            }
+            stack.push(this);
+        }
+
+        void reuse() {
+            next = null;
+            state = STATE_IN_USE; // volatile 写, 与下一次 recycle 的 CAS 建立 happens-before
+        }
+    }
+
+    private static final class Stack<T> {
+
+        // 弱引用, 线程结束后不会因为池内对象还活着而被 hold 住
+        private final WeakReference<Thread> threadRef;
+        private final int maxCapacity;
+        private final int maxPending;
+
+        private DefaultHandle<T>[] elements;
+        private int size;
+
+        // 其他线程回收的对象
+        private final AtomicReference<DefaultHandle<T>> pendingHead = new AtomicReference<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        Stack(Thread thread, int maxCapacity, int maxPending) {
+            this.threadRef = new WeakReference<>(thread);
+            this.maxCapacity = maxCapacity;
+            this.maxPending = maxPending;
+            this.elements = new DefaultHandle[Math.min(INITIAL_CAPACITY, maxCapacity)];
+        }
+
+        DefaultHandle<T> pop() {
+            if (size == 0 && !drainPending()) {
+                return null;
+            }
+            DefaultHandle<T> handle = elements[--size];
+            elements[size] = null;
+            handle.reuse();
+            return handle;
+        }
+
+        void push(DefaultHandle<T> handle) {
+            if (threadRef.get() == Thread.currentThread()) {
+                pushNow(handle);
+            } else {
+                pushLater(handle);
+            }
+        }
+
+        private void pushNow(DefaultHandle<T> handle) {
+            if (size >= maxCapacity) {
+                return; // 容量已满, 丢给 GC
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, Math.min(Math.max(size << 1, 16), maxCapacity));
+            }
+            elements[size++] = handle;
+        }
+
+        private void pushLater(DefaultHandle<T> handle) {
+            if (threadRef.get() == null) {
+                return; // 所属线程已经结束, 没有人会再取回
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                return;
+            }
+            DefaultHandle<T> head;
+            do {
+                head = pendingHead.get();
+                handle.next = head;
+            } while (!pendingHead.compareAndSet(head, handle));
+        }
+
+        // 只会在所属线程调用
+        private boolean drainPending() {
+            if (pendingHead.get() == null) {
+                return false;
+            }
+            DefaultHandle<T> handle = pendingHead.getAndSet(null);
+            int drained = 0;
+            while (handle != null) {
+                DefaultHandle<T> next = handle.next;
+                handle.next = null;
+                pushNow(handle);
+                handle = next;
+                drained++;
+            }
+            pendingCount.addAndGet(-drained);
+            return size > 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * org.neptune.common.util - VirtualThreads
+ * 虚拟线程(Java 21+)的运行时探测与创建.
+ * <p>
+ * 工程以 1.8 为编译目标, 这里通过 MethodHandle 查找 Thread.ofVirtual() 等 API, 低版本 JDK 上 {@link #isAvailable()} 返回 false;
+ * Java 19/20 上虚拟线程是预览特性, 未开启 --enable-preview 时同样视为不可用.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 16:40
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private static final MethodHandle OF_VIRTUAL;              // Thread.ofVirtual()
+    private static final MethodHandle BUILDER_NAME;            // Thread.Builder.name(String, long)
+    private static final MethodHandle BUILDER_FACTORY;         // Thread.Builder.factory()
+    private static final MethodHandle NEW_THREAD_PER_TASK;     // Executors.newThreadPerTaskExecutor(ThreadFactory)
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle builderName = null;
+        MethodHandle builderFactory = null;
+        MethodHandle newThreadPerTask = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            builderName = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class, long.class));
+            builderFactory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            newThreadPerTask = lookup.findStatic(java.util.concurrent.Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            // 预览特性未开启时这里会抛出 UnsupportedOperationException
+            ofVirtual.invoke();
+        } catch (Throwable t) {
+            log.debug("virtual thread is not available: {}", t.toString());
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK = newThreadPerTask;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建虚拟线程工厂, 线程名为 namePrefix + 序号
+     *
+     * @throws UnsupportedOperationException 当前 JDK 不支持虚拟线程
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        checkAvailable();
+        try {
+            Object builder = OF_VIRTUAL.invoke();
+            builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Throwable t) {
+            throw new UnsupportedOperationException("create virtual thread factory failed", t);
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程的 ExecutorService
+     *
+     * @throws UnsupportedOperationException 当前 JDK 不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = newThreadFactory(namePrefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK.invoke(factory);
+        } catch (Throwable t) {
+            throw new UnsupportedOperationException("create virtual thread executor failed", t);
+        }
+    }
+
+    private static void checkAvailable() {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("virtual thread requires java 21+");
+        }
+    }
+}
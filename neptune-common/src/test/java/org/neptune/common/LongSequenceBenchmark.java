@@ -0,0 +1,55 @@
+package org.neptune.common;
+
+import org.neptune.common.util.LongSequence;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * org.neptune.common - LongSequenceBenchmark
+ * 多线程争用同一个序号生成器, 对比 AtomicLong 每次 CAS 与 LongSequence 线程本地按 step 批量申请
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 14:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class LongSequenceBenchmark {
+
+    private final AtomicLong atomicLong = new AtomicLong();
+    private final LongSequence sequence = new LongSequence();
+    private final LongSequence sequenceStep1 = new LongSequence(1);
+
+    @Benchmark
+    public long atomicLong() {
+        return atomicLong.incrementAndGet();
+    }
+
+    @Benchmark
+    public long longSequenceStep1() {
+        return sequenceStep1.next();
+    }
+
+    @Benchmark
+    public long longSequence() {
+        return sequence.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LongSequenceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,70 @@
+package org.neptune.common.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.common.util - RecyclersBenchmark
+ * 对比 new 与对象池的吞吐量与分配速率, 关注 gc.alloc.rate.norm
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 11:50
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecyclersBenchmark {
+
+    static final class Pooled {
+        final Recyclers.Handle<Pooled> handle;
+        long id;
+        Object ref;
+
+        Pooled(Recyclers.Handle<Pooled> handle) {
+            this.handle = handle;
+        }
+    }
+
+    private static final Recyclers<Pooled> RECYCLERS = new Recyclers<Pooled>() {
+        @Override
+        protected Pooled newObject(Handle<Pooled> handle) {
+            return new Pooled(handle);
+        }
+    };
+
+    private long id;
+
+    @Benchmark
+    public void allocate(Blackhole bh) {
+        Pooled o = new Pooled(null);
+        o.id = ++id;
+        bh.consume(o);
+    }
+
+    @Benchmark
+    public void recycleSameThread(Blackhole bh) {
+        Pooled o = RECYCLERS.get();
+        o.id = ++id;
+        bh.consume(o);
+        o.handle.recycle(o);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RecyclersBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
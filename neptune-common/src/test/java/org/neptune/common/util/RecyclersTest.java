@@ -0,0 +1,111 @@
+package org.neptune.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * org.neptune.common.util - RecyclersTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 11:40
+ */
+class RecyclersTest {
+
+    static final class Pooled {
+        final Recyclers.Handle<Pooled> handle;
+
+        Pooled(Recyclers.Handle<Pooled> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            handle.recycle(this);
+        }
+    }
+
+    private static Recyclers<Pooled> newRecyclers(int maxCapacity) {
+        return new Recyclers<Pooled>(maxCapacity) {
+            @Override
+            protected Pooled newObject(Handle<Pooled> handle) {
+                return new Pooled(handle);
+            }
+        };
+    }
+
+    @Test
+    public void testReuseInSameThread() {
+        Recyclers<Pooled> recyclers = newRecyclers(16);
+        Pooled o1 = recyclers.get();
+        o1.recycle();
+        Pooled o2 = recyclers.get();
+        Assertions.assertSame(o1, o2);
+        Assertions.assertNotSame(o2, recyclers.get());
+    }
+
+    @Test
+    public void testRecycleFromOtherThread() throws InterruptedException {
+        Recyclers<Pooled> recyclers = newRecyclers(16);
+        Pooled o1 = recyclers.get();
+
+        Thread t = new Thread(o1::recycle);
+        t.start();
+        t.join();
+
+        Assertions.assertSame(o1, recyclers.get());
+    }
+
+    @Test
+    public void testRecycleTwice() {
+        Recyclers<Pooled> recyclers = newRecyclers(16);
+        Pooled o1 = recyclers.get();
+        o1.recycle();
+        Assertions.assertThrows(IllegalStateException.class, o1::recycle);
+    }
+
+    @Test
+    public void testRecycleTwiceFromOtherThread() throws InterruptedException {
+        Recyclers<Pooled> recyclers = newRecyclers(16);
+        Pooled o1 = recyclers.get();
+        o1.recycle();
+
+        AtomicReference<Throwable> cause = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            try {
+                o1.recycle();
+            } catch (Throwable e) {
+                cause.set(e);
+            }
+        });
+        t.start();
+        t.join();
+        Assertions.assertTrue(cause.get() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testMaxCapacity() {
+        Recyclers<Pooled> recyclers = newRecyclers(2);
+        Pooled o1 = recyclers.get();
+        Pooled o2 = recyclers.get();
+        Pooled o3 = recyclers.get();
+        o1.recycle();
+        o2.recycle();
+        o3.recycle(); // 超出容量, 直接丢弃
+
+        Assertions.assertSame(o2, recyclers.get());
+        Assertions.assertSame(o1, recyclers.get());
+        Pooled o4 = recyclers.get();
+        Assertions.assertNotSame(o3, o4);
+    }
+
+    @Test
+    public void testDisabled() {
+        Recyclers<Pooled> recyclers = newRecyclers(0);
+        Pooled o1 = recyclers.get();
+        o1.recycle();
+        o1.recycle(); // 关闭池化时回收是空操作
+        Assertions.assertNotSame(o1, recyclers.get());
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.neptune.example;
 
+import org.neptune.rpc.annotation.RpcServiceImpl;
+
 /**
  * org.neptune.example - ServiceImpl
  *
  * @author tony-is-coding
  * @date 2021/12/20 15:38
  */
+@RpcServiceImpl(version = "1.0.0")
 public class ServiceImpl implements Service {
 
     @Override
@@ -43,6 +43,7 @@ public class SimpleServer {
                     .port(8001)
                     .servicePublisher(nacosServicePublisher)
                     .build();
+            server.addProvider(ServiceImpl.class);
             server.start();
         } catch (Exception e) {
         } finally {
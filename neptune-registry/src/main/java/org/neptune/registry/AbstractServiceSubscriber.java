@@ -1,37 +1,74 @@
 package org.neptune.registry;
 
-import org.neptune.common.util.ConcurrentSet;
-
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * @desc TODO
+ * @desc 维护每个服务当前的提供者列表
+ * 注册中心每次推送的都是全量列表, 这里与上一次的列表做差集, 只对真正新增/下线的实例发出通知,
+ * 并且把最新列表作为一个不可变的数组整体替换, 读取方拿到的数组永远不会再被修改
  *
  * @author tony
  * @createDate 2024/4/19 11:35 上午
  */
 public abstract class AbstractServiceSubscriber implements ServiceSubscriber{
 
-    private final ConcurrentHashMap<ServiceMeta, ConcurrentSet<RegistryMeta>> SERVICE_PROVIDER_MAP = new ConcurrentHashMap<>(128);
+    private static final RegistryMeta[] EMPTY = new RegistryMeta[0];
+
+    private final ConcurrentHashMap<ServiceMeta, RegistryMeta[]> SERVICE_PROVIDER_MAP = new ConcurrentHashMap<>(128);
 
     @Override
     public Map<Object, Integer> consumers() {
         return null;
     }
 
-    protected void updateServiceList(final ServiceMeta serviceMeta, List<RegistryMeta> serviceProviders){
+    /**
+     * @param serviceProviders 服务当前的全量提供者列表
+     * @param notifier         可以为 null
+     */
+    protected void updateServiceList(final ServiceMeta serviceMeta, List<RegistryMeta> serviceProviders, RegistryNotifier notifier){
+        // 通知也放在锁内, 保证同一个服务的多次变更按顺序送达
         synchronized (SERVICE_PROVIDER_MAP){
-            ConcurrentSet<RegistryMeta> registryMetas = SERVICE_PROVIDER_MAP.getOrDefault(serviceMeta, new ConcurrentSet<>());
-            registryMetas.addAll(serviceProviders);
-            SERVICE_PROVIDER_MAP.put(serviceMeta, registryMetas);
+            RegistryMeta[] previous = SERVICE_PROVIDER_MAP.getOrDefault(serviceMeta, EMPTY);
+            // 按实例(服务+地址)去重, 同一个实例只保留最后一次出现的元数据
+            Set<RegistryMeta> latest = new LinkedHashSet<>(serviceProviders.size());
+            for (RegistryMeta meta : serviceProviders) {
+                latest.remove(meta);
+                latest.add(meta);
+            }
+            RegistryMeta[] current = latest.toArray(EMPTY);
+            SERVICE_PROVIDER_MAP.put(serviceMeta, current);
+
+            if (notifier == null) {
+                return;
+            }
+            Set<RegistryMeta> before = new HashSet<>(Arrays.asList(previous));
+            for (RegistryMeta meta : current) {
+                if (!before.remove(meta)) {
+                    notifier.notify(meta, RegistryNotifier.EventType.SERVICE_ADDED);
+                }
+            }
+            for (RegistryMeta meta : before) {
+                notifier.notify(meta, RegistryNotifier.EventType.SERVICE_REMOVED);
+            }
+            notifier.providersChanged(serviceMeta, current);
         }
     }
 
     @Override
     public Set<RegistryMeta> serviceList(ServiceMeta serviceMeta) {
-        return SERVICE_PROVIDER_MAP.get(serviceMeta);
+        RegistryMeta[] providers = SERVICE_PROVIDER_MAP.get(serviceMeta);
+        return providers == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(providers)));
+    }
+
+    @Override
+    public RegistryMeta[] providers(ServiceMeta serviceMeta) {
+        return SERVICE_PROVIDER_MAP.getOrDefault(serviceMeta, EMPTY);
     }
 }
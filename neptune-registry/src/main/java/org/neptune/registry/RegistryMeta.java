@@ -19,6 +19,8 @@ import lombok.Setter;
 import lombok.ToString;
 import org.neptune.common.UnresolvedAddress;
 
+import java.util.Objects;
+
 /**
  * org.neptune.rpc.registry - RegistryMeta
  *
@@ -62,4 +64,19 @@ public class RegistryMeta {
     public String toUniqueInstanceId(){
         return "default";
     }
+
+    // 同一个服务的同一个地址视为同一个实例, 权重不参与比较
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegistryMeta that = (RegistryMeta) o;
+        return Objects.equals(serviceMeta, that.serviceMeta) &&
+                Objects.equals(address, that.address);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serviceMeta, address);
+    }
 }
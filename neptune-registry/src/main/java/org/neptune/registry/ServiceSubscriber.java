@@ -43,6 +43,11 @@ public interface ServiceSubscriber extends Registry{
 
     Set<RegistryMeta> serviceList(ServiceMeta serviceMeta);
 
+    /**
+     * 服务当前的提供者快照, 没有提供者时返回空数组; 返回的数组不会再被修改, 调用方也不要修改它
+     */
+    RegistryMeta[] providers(ServiceMeta serviceMeta);
+
     enum RegisterState {
         PREPARE,
         DONE
@@ -54,6 +59,12 @@ public interface ServiceSubscriber extends Registry{
     interface RegistryNotifier {
         void notify(RegistryMeta registryMeta, EventType eventType);
 
+        /**
+         * 一次变更的所有 {@link #notify(RegistryMeta, EventType)} 之后调用, 携带变更后的全量提供者列表
+         */
+        default void providersChanged(ServiceMeta serviceMeta, RegistryMeta[] providers) {
+        }
+
         enum EventType {
             SERVICE_ADDED,
             SERVICE_REMOVED
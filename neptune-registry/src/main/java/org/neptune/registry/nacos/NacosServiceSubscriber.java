@@ -71,10 +71,9 @@ public class NacosServiceSubscriber extends AbstractServiceSubscriber {
                     meta.setServiceMeta(sm);
 
                     registeredMetas.add(meta);
-                    // todo: 如何计算是节点的什么事件
-                    notifier.notify(meta, RegistryNotifier.EventType.SERVICE_ADDED);
                 }
-                updateServiceList(serviceMeta, registeredMetas);
+                // 推送的是全量列表, 由 updateServiceList 计算新增/下线事件
+                updateServiceList(serviceMeta, registeredMetas, notifier);
             });
         }catch (NacosException e){
             e.printStackTrace();
@@ -0,0 +1,64 @@
+package org.neptune.registry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.registry.defaultimpl.DefaultServiceSubscriber;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * org.neptune.registry - ServiceSubscriberTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 18:30
+ */
+class ServiceSubscriberTest {
+
+    private static final ServiceMeta SERVICE = new ServiceMeta("demo", "1.0.0", "test");
+
+    private static RegistryMeta provider(int port, int weight) {
+        RegistryMeta meta = new RegistryMeta();
+        meta.setServiceMeta(SERVICE);
+        meta.setAddress(new UnresolvedSocketAddress("127.0.0.1", port));
+        meta.setWight(weight);
+        return meta;
+    }
+
+    @Test
+    public void testFullListDiff() {
+        DefaultServiceSubscriber subscriber = new DefaultServiceSubscriber();
+        List<String> events = new ArrayList<>();
+        List<RegistryMeta[]> snapshots = new ArrayList<>();
+        ServiceSubscriber.RegistryNotifier notifier = new ServiceSubscriber.RegistryNotifier() {
+            @Override
+            public void notify(RegistryMeta registryMeta, EventType eventType) {
+                events.add(eventType + ":" + registryMeta.getAddress().port());
+            }
+
+            @Override
+            public void providersChanged(ServiceMeta serviceMeta, RegistryMeta[] providers) {
+                snapshots.add(providers);
+            }
+        };
+
+        subscriber.updateServiceList(SERVICE, Arrays.asList(provider(1, 1), provider(2, 1)), notifier);
+        // 2 权重变化, 1 下线, 3 上线
+        subscriber.updateServiceList(SERVICE, Arrays.asList(provider(2, 5), provider(3, 1)), notifier);
+
+        Assertions.assertEquals(Arrays.asList("SERVICE_ADDED:1", "SERVICE_ADDED:2",
+                "SERVICE_ADDED:3", "SERVICE_REMOVED:1"), events);
+        Assertions.assertEquals(2, snapshots.size());
+        Assertions.assertEquals(2, snapshots.get(0).length);
+
+        RegistryMeta[] current = subscriber.providers(SERVICE);
+        Assertions.assertSame(snapshots.get(1), current);
+        Assertions.assertEquals(2, current[0].getAddress().port());
+        Assertions.assertEquals(5, current[0].getWight());
+        Assertions.assertEquals(3, current[1].getAddress().port());
+        Assertions.assertEquals(2, subscriber.serviceList(SERVICE).size());
+    }
+}
@@ -16,70 +16,170 @@
 package org.neptune.rpc;
 
 
-import com.alibaba.fastjson2.JSON;
-import io.netty.channel.Channel;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
 import lombok.extern.slf4j.Slf4j;
+import org.neptune.rpc.client.lb.ProviderStats;
+import org.neptune.rpc.exec.RpcException;
+import org.neptune.transport.Status;
+import org.neptune.transport.connection.Connection;
+import org.neptune.transport.connection.PendingRequest;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * org.neptune.rpc.core - DefaultInvokeFuture
  * 通过这个进行阶段通知
+ * <p>
+ * 创建时登记到所属连接的在途请求表 {@link Connection#inFlight()}, 收到响应/发送失败/连接断开时从表中移除并完成
+ * <p>
+ * 超时由连接器共享的时间轮驱动: 到期后从在途请求表中移除, 并以 {@link Status#CLIENT_TIMEOUT} 异常完成,
+ * 同步调用方与异步调用方拿到的是同一个截止时间, 不需要额外占用线程去等待
+ * <p>
+ * 无论以何种方式完成, 都把本次耗时回填到目标地址的 {@link ProviderStats}, 供负载均衡使用
  *
  * @author tony-is-coding
  * @date 2021/12/20 17:56
  */
 @Slf4j
-public class DefaultInvokeFuture<V> extends CompletableFuture<V> implements InvokeFuture<V> {
+public class DefaultInvokeFuture<V> extends CompletableFuture<V> implements InvokeFuture<V>, PendingRequest, TimerTask {
 
-    private static final ConcurrentHashMap<Long, DefaultInvokeFuture<?>> FUTURE_HOLDER = new ConcurrentHashMap<>(16);
     private static final byte SEND_FAILURE = -1;
     private static final byte SEND_SUCCESS = 1;
     private static final byte SENDING = 0;
 
-    private final Channel channel;
+    private final Connection connection;
     private final long invokeId;
     private final Class<V> returnType;
+    private final long timeoutMillis;
+    private final ProviderStats stats;
+    private final long startNanos;
 
-    private byte sendState = SENDING;
+    private volatile byte sendState = SENDING;
+    private volatile Timeout timeout;
 
-    public DefaultInvokeFuture(Channel channel, long invokeId, Class<V> returnType) {
-        this.channel = channel;
+    /**
+     * @param timeoutMillis 调用超时, <= 0 表示不设置超时
+     */
+    public DefaultInvokeFuture(Connection connection, long invokeId, Class<V> returnType, Timer timer, long timeoutMillis) {
+        this(connection, invokeId, returnType, timer, timeoutMillis, null);
+    }
+
+    /**
+     * @param stats 目标地址的负载统计, 可以为 null
+     */
+    public DefaultInvokeFuture(Connection connection, long invokeId, Class<V> returnType, Timer timer, long timeoutMillis,
+                               ProviderStats stats) {
+        this.connection = connection;
         this.invokeId = invokeId;
         this.returnType = returnType;
-        FUTURE_HOLDER.put(invokeId, this);
+        this.timeoutMillis = timeoutMillis;
+        this.stats = stats;
+        this.startNanos = stats == null ? 0 : stats.start();
+        connection.inFlight().put(invokeId, this);
+        if (timeoutMillis > 0) {
+            this.timeout = timer.newTimeout(this, timeoutMillis, TimeUnit.MILLISECONDS);
+            if (isDone()) { // 登记与调度之间已经完成
+                cancelTimeout();
+            }
+        }
     }
 
     public void sentSuccess() {
         sendState = SEND_SUCCESS;
     }
 
-    public void sentFailure() {
+    public void sentFailure(Throwable cause) {
         sendState = SEND_FAILURE;
+        // 请求没有发出去, 不会有响应
+        connection.inFlight().remove(invokeId, this);
+        cancelTimeout();
+        completeExceptionally(cause);
+    }
+
+    @Override
+    public void abort(Throwable cause) {
+        cancelTimeout();
+        completeExceptionally(cause);
+    }
+
+    @Override
+    public void run(Timeout timeout) {
+        if (isDone()) {
+            return;
+        }
+        // 只移除自己, 迟到的响应找不到 future 会被直接丢弃
+        connection.inFlight().remove(invokeId, this);
+        String message = (sendState == SEND_SUCCESS ? "wait for response timeout" : "send request timeout")
+                + " after " + timeoutMillis + "ms, invokeId: " + invokeId + ", channel: " + connection.channel();
+        completeExceptionally(new RpcException(Status.CLIENT_TIMEOUT, message));
     }
 
     @Override
     public V result() throws Throwable {
-        return get(1000, TimeUnit.MILLISECONDS);
+        // 截止时间由时间轮保证, 这里只需要等待完成
+        try {
+            return get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public boolean complete(V value) {
+        if (super.complete(value)) {
+            recordStats();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean completeExceptionally(Throwable ex) {
+        if (super.completeExceptionally(ex)) {
+            recordStats();
+            return true;
+        }
+        return false;
+    }
+
+    // 只有真正完成 future 的那一次会进来, 保证每个请求只统计一次
+    private void recordStats() {
+        if (stats != null) {
+            stats.finish(startNanos);
+        }
+    }
+
+    private void cancelTimeout() {
+        Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
     }
 
     @SuppressWarnings("unchecked")
     private void doReceived(Response response) {
+        cancelTimeout();
         final Object result = response.getResult();
+        final Status status = response.getStatus();
+        if (status != Status.OK) {
+            completeExceptionally(new RpcException(status, String.valueOf(result)));
+            return;
+        }
         complete((V) result); // 完成
     }
 
-    public static void received(Channel ch, Response response) {
+    public static void received(Connection connection, Response response) {
         final long invokeId = response.getInvokeId();
-        DefaultInvokeFuture<?> invokeFuture = FUTURE_HOLDER.remove(invokeId);
-        if (invokeFuture == null) {
+        PendingRequest pending = connection.inFlight().remove(invokeId);
+        if (!(pending instanceof DefaultInvokeFuture)) {
             return;
         }
         // 进行异步通知
-        invokeFuture.doReceived(response);
+        ((DefaultInvokeFuture<?>) pending).doReceived(response);
     }
 
 }
@@ -15,20 +15,46 @@
  */
 package org.neptune.rpc;
 
+import org.neptune.common.util.Recyclers;
+
 /**
  * org.neptune.rpc.core - Request
+ * 只在调用方线程内使用, 由创建者在 dispatch 返回后回收 (body 已经被序列化进出站帧)
  *
  * @author tony-is-coding
  * @date 2021/12/17 18:15
  */
 public class Request {
 
-    private final long invokeId;            //  request-response 关联的唯一事务ID;
+    private static final Recyclers<Request> RECYCLERS = new Recyclers<Request>() {
+
+        @Override
+        protected Request newObject(Handle<Request> handle) {
+            return new Request(handle);
+        }
+    };
+
+    private final Recyclers.Handle<Request> handle;
+
+    private long invokeId;                  //  request-response 关联的唯一事务ID;
 
     private RequestBody body;               // 请求体,这部分数据需要序列化成协议体打包传输到 server 对端
 
+    private long timeoutMillis;             // 调用超时, 只在调用方使用, 不参与序列化
+
+    public static Request newInstance(long invokeId) {
+        Request request = RECYCLERS.get();
+        request.invokeId = invokeId;
+        return request;
+    }
+
     public Request(long invokeId) {
         this.invokeId = invokeId;
+        this.handle = null;
+    }
+
+    private Request(Recyclers.Handle<Request> handle) {
+        this.handle = handle;
     }
 
     public long getInvokeId() {
@@ -42,5 +68,28 @@ public class Request {
     public void setBody(RequestBody body) {
         this.body = body;
     }
-}
 
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 归还到对象池, 持有的 body 一并回收; 非池化创建的对象调用此方法无副作用
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        if (body != null) {
+            body.recycle();
+            body = null;
+        }
+        invokeId = 0;
+        timeoutMillis = 0;
+        handle.recycle(this);
+    }
+}
@@ -15,12 +15,14 @@
  */
 package org.neptune.rpc;
 
+import org.neptune.common.util.Recyclers;
 import org.neptune.registry.ServiceMeta;
 
 import java.io.Serializable;
 
 /**
  * org.neptune.rpc.core - RequestBody
+ * 调用方通过 {@link #newInstance(ServiceMeta)} 从对象池获取; 服务端由反序列化创建, 不参与池化
  *
  * @author tony-is-coding
  * @date 2021/12/24 14:19
@@ -29,13 +31,35 @@ public class RequestBody implements Serializable {
 
     private static final long serialVersionUID = 1009813828866652852L;
 
+    private static final Recyclers<RequestBody> RECYCLERS = new Recyclers<RequestBody>() {
+
+        @Override
+        protected RequestBody newObject(Handle<RequestBody> handle) {
+            return new RequestBody(handle);
+        }
+    };
+
+    // transient: 不参与序列化, 反序列化出来的对象 handle 为 null
+    private final transient Recyclers.Handle<RequestBody> handle;
+
     private String appName;                 // 当前应用 - 应用名称
-    private final ServiceMeta metadata;     // 目标服务元数据
+    private ServiceMeta metadata;           // 目标服务元数据
     private String methodName;              // 目标方法名称
     private Object[] args;                  // 目标方法参数
 
+    public static RequestBody newInstance(ServiceMeta metadata) {
+        RequestBody body = RECYCLERS.get();
+        body.metadata = metadata;
+        return body;
+    }
+
     public RequestBody(ServiceMeta metadata) {
         this.metadata = metadata;
+        this.handle = null;
+    }
+
+    private RequestBody(Recyclers.Handle<RequestBody> handle) {
+        this.handle = handle;
     }
 
     public String getAppName() {
@@ -65,4 +89,18 @@ public class RequestBody implements Serializable {
     public void setArgs(Object[] args) {
         this.args = args;
     }
+
+    /**
+     * 归还到对象池, 非池化创建的对象调用此方法无副作用
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        appName = null;
+        metadata = null;
+        methodName = null;
+        args = null;
+        handle.recycle(this);
+    }
 }
@@ -15,22 +15,49 @@
  */
 package org.neptune.rpc;
 
+import org.neptune.common.util.Recyclers;
+import org.neptune.transport.Status;
+
 /**
  * org.neptune.rpc.core - Response
+ * 调用方在响应分发给 future 之后即可回收
  *
  * @author tony-is-coding
  * @date 2021/12/17 18:15
  */
 public class Response {
 
+    private static final Recyclers<Response> RECYCLERS = new Recyclers<Response>() {
+
+        @Override
+        protected Response newObject(Handle<Response> handle) {
+            return new Response(handle);
+        }
+    };
+
+    private final Recyclers.Handle<Response> handle;
+
     long invokeId;     //  request-response 关联的唯一事务ID;
 
+    Status status = Status.OK; // 协议头中的响应状态, 非 OK 时 body 中的 result 为错误信息
+
     ResponseBody body; //  这部分数据需要支持被序列化, 已支持传递到client对端
 
+    public static Response newInstance(long invokeId, ResponseBody body) {
+        Response response = RECYCLERS.get();
+        response.invokeId = invokeId;
+        response.body = body;
+        return response;
+    }
 
     public Response(long invokeId, ResponseBody body) {
         this.invokeId = invokeId;
         this.body = body;
+        this.handle = null;
+    }
+
+    private Response(Recyclers.Handle<Response> handle) {
+        this.handle = handle;
     }
 
     public Object getResult() {
@@ -40,4 +67,25 @@ public class Response {
     public long getInvokeId() {
         return invokeId;
     }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * 归还到对象池, 非池化创建的对象调用此方法无副作用
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        invokeId = 0;
+        status = Status.OK;
+        body = null;
+        handle.recycle(this);
+    }
 }
@@ -15,10 +15,13 @@
  */
 package org.neptune.rpc;
 
+import org.neptune.common.util.Recyclers;
+
 import java.io.Serializable;
 
 /**
  * org.neptune.rpc.core - ResponseBody
+ * 服务端通过 {@link #newInstance()} 从对象池获取, 序列化完即可回收; 调用方由反序列化创建, 不参与池化
  *
  * @author tony-is-coding
  * @date 2021/12/24 14:24
@@ -26,8 +29,31 @@ import java.io.Serializable;
 public class ResponseBody implements Serializable {
     private static final long serialVersionUID = -8908295634641380163L;
 
+    private static final Recyclers<ResponseBody> RECYCLERS = new Recyclers<ResponseBody>() {
+
+        @Override
+        protected ResponseBody newObject(Handle<ResponseBody> handle) {
+            return new ResponseBody(handle);
+        }
+    };
+
+    // transient: 不参与序列化, 反序列化出来的对象 handle 为 null
+    private final transient Recyclers.Handle<ResponseBody> handle;
+
     Object result;
 
+    public static ResponseBody newInstance() {
+        return RECYCLERS.get();
+    }
+
+    public ResponseBody() {
+        this.handle = null;
+    }
+
+    private ResponseBody(Recyclers.Handle<ResponseBody> handle) {
+        this.handle = handle;
+    }
+
     public Object getResult() {
         return result;
     }
@@ -35,4 +61,15 @@ public class ResponseBody implements Serializable {
     public void setResult(Object result) {
         this.result = result;
     }
+
+    /**
+     * 归还到对象池, 非池化创建的对象调用此方法无副作用
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        result = null;
+        handle.recycle(this);
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * org.neptune.rpc.annotation - NonBlocking
+ *  标记服务方法不会阻塞(纯内存计算, 耗时极短), 服务端直接在 IO 线程上执行, 省去一次线程切换;
+ *  注解在服务接口或实现类的方法上均可, 阻塞的方法千万不要标记
+ * @author tony-is-coding
+ * @date 2026/10/18 16:00
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NonBlocking {
+}
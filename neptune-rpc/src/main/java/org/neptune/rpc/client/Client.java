@@ -20,6 +20,8 @@ import org.neptune.rpc.client.ProxyFactory;
 import org.neptune.registry.ServiceSubscriber;
 import org.neptune.transport.connector.Connector;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * org.neptune.rpc.core - Client
  *
@@ -38,8 +40,18 @@ public interface Client {
 
     Connector getConnector();
 
+    /**
+     * 分配一个在当前客户端内唯一的调用ID, 用于关联请求与响应
+     */
+    long nextInvokeId();
+
     ServiceSubscriber serviceSubscriber();
 
+    /**
+     * 服务的提供者快照, 注册中心每次变更时整体替换; 调用方可以一直持有返回的引用, get() 总是拿到最新的快照
+     */
+    AtomicReference<ProviderSnapshot> providers(ServiceMeta serviceMeta);
+
     <T> ProxyFactory<T> proxy(Class<T> clz);
 
     <T> ProxyFactory<T> proxy( Class<T> clz, ServiceMeta serviceMeta);
@@ -19,15 +19,24 @@ import com.alibaba.fastjson2.JSON;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
 import lombok.extern.slf4j.Slf4j;
 import org.neptune.common.UnresolvedAddress;
+import org.neptune.common.util.LongSequence;
 import org.neptune.common.util.Strings;
+import org.neptune.common.util.SysPropertyUtil;
 import org.neptune.registry.*;
 import org.neptune.rpc.annotation.RpcService;
+import org.neptune.rpc.client.lb.ProviderStats;
+import org.neptune.transport.connection.Connection;
 import org.neptune.transport.connection.ConnectionGroup;
 import org.neptune.transport.connector.Connector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.neptune.common.util.Requires.requireNotNull;
 
@@ -42,9 +51,21 @@ public class DefaultClient implements Client {
 
     private final static Logger logger = LoggerFactory.getLogger(DefaultClient.class);
 
+    // 每个服务最多连接的提供者数量, <= 0 表示连接全部, 见 ProviderSubset
+    private static final int DEFAULT_SUBSET_SIZE = SysPropertyUtil.getInt("neptune.rpc.client.subsetSize", 0);
+
     private ServiceSubscriber serviceSubscriber;
     private String clientAppName;
     private Connector connector;
+    private String clientId;                // 子集划分使用, 需要在客户端之间唯一且重启后不变
+    private int subsetSize = DEFAULT_SUBSET_SIZE;
+
+    // 调用ID, 每个线程批量申请一段区间, 高并发下基本不会在 CAS 上竞争
+    private final LongSequence invokeIdSequence = new LongSequence();
+
+    private final ConcurrentHashMap<ServiceMeta, AtomicReference<ProviderSnapshot>> providerSnapshots = new ConcurrentHashMap<>();
+    // 按地址统计负载, 同一个地址被多个服务共享, 快照替换后统计延续
+    private final ConcurrentHashMap<UnresolvedAddress, ProviderStats> providerStats = new ConcurrentHashMap<>();
 
     public static DefaultClientBuilder builder() {
         return new DefaultClientBuilder();
@@ -62,11 +83,87 @@ public class DefaultClient implements Client {
         return connector;
     }
 
+    @Override
+    public long nextInvokeId() {
+        return invokeIdSequence.next();
+    }
+
     @Override
     public ServiceSubscriber serviceSubscriber() {
         return serviceSubscriber;
     }
 
+    @Override
+    public AtomicReference<ProviderSnapshot> providers(ServiceMeta serviceMeta) {
+        return providerSnapshots.computeIfAbsent(serviceMeta,
+                meta -> new AtomicReference<>(newSnapshot(meta,
+                        ProviderSubset.select(clientId, serviceSubscriber.providers(meta), subsetSize))));
+    }
+
+    /**
+     * 注册中心变更后, 按子集划分的结果建立/释放连接并发布新的快照, 变更很少, 直接加锁
+     * <p>
+     * 在注册中心的通知线程上执行: 连接异步建立, 单个地址连接失败(发布过程中很常见)只影响它自己,
+     * 新快照总会发布, 下线的地址总会释放; 没有可用连接的地址由 {@link ConnectionGroup#next()} 返回 null, 调用时快速失败
+     */
+    private synchronized void updateProviders(ServiceMeta serviceMeta, RegistryMeta[] providers) {
+        RegistryMeta[] subset = ProviderSubset.select(clientId, providers, subsetSize);
+        AtomicReference<ProviderSnapshot> ref = providers(serviceMeta);
+        ProviderSnapshot previous = ref.get();
+
+        Set<UnresolvedAddress> retained = new HashSet<>(subset.length * 2);
+        for (RegistryMeta meta : subset) {
+            final UnresolvedAddress address = meta.getAddress();
+            retained.add(address);
+            try {
+                // 已经建立过连接时什么都不做
+                connector.getAddressConnects(address).addConnect(() -> connector.connect(address, true));
+            } catch (Throwable t) {
+                log.warn("connect to provider {} of {} failed: {}", address, serviceMeta, t.toString());
+            }
+        }
+        ref.set(newSnapshot(serviceMeta, subset));
+
+        for (int i = 0; i < previous.size(); i++) {
+            UnresolvedAddress address = previous.address(i);
+            if (!retained.contains(address) && !isInUse(address)) {
+                releaseAddress(address);
+            }
+        }
+    }
+
+    // 同一个地址可能同时提供多个服务
+    private boolean isInUse(UnresolvedAddress address) {
+        for (AtomicReference<ProviderSnapshot> ref : providerSnapshots.values()) {
+            ProviderSnapshot snapshot = ref.get();
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.address(i).equals(address)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void releaseAddress(UnresolvedAddress address) {
+        ConnectionGroup group = connector.getAddressConnects(address);
+        connector.removeAddressConnects(address);
+        providerStats.remove(address);
+        for (Connection connection : group.connections()) {
+            // 不再重连, 关闭后在途请求由连接断开的处理统一失败
+            connection.setReconnect(false);
+            group.removeConnect(connection);
+            if (connection.channel() != null) {
+                connection.channel().close();
+            }
+        }
+    }
+
+    private ProviderSnapshot newSnapshot(ServiceMeta serviceMeta, RegistryMeta[] providers) {
+        return ProviderSnapshot.of(serviceMeta, providers, connector::getAddressConnects,
+                address -> providerStats.computeIfAbsent(address, a -> new ProviderStats()));
+    }
+
     @Override
     public <T> ProxyFactory<T> proxy(Class<T> clz) {
         ServiceMeta serviceMeta = parseServiceMeta(clz);
@@ -131,13 +228,12 @@ public class DefaultClient implements Client {
                 serviceSubscriber.subscribe(serviceMeta, new ServiceSubscriber.RegistryNotifier() {
                     @Override
                     public void notify(RegistryMeta registryMeta, EventType eventType) {
-                        final UnresolvedAddress address = registryMeta.getAddress();
-                        if (eventType == EventType.SERVICE_ADDED) {
-                            ConnectionGroup group = connector.getAddressConnects(address);
-                            group.addConnect(() -> connector.connect(address, false));
-                        } else if (eventType == EventType.SERVICE_REMOVED) {
-                            connector.removeAddressConnects(address);
-                        }
+                        // 开启子集划分时, 新增的实例不一定需要连接, 连接的建立/释放统一在 providersChanged 中按全量列表处理
+                    }
+
+                    @Override
+                    public void providersChanged(ServiceMeta changed, RegistryMeta[] providers) {
+                        updateProviders(serviceMeta, providers);
                     }
                 });
             }
@@ -180,7 +276,26 @@ public class DefaultClient implements Client {
             return this;
         }
 
+        /**
+         * 默认为 应用名/进程名(pid@host)
+         */
+        public DefaultClientBuilder clientId(String clientId) {
+            innerClient.clientId = clientId;
+            return this;
+        }
+
+        /**
+         * 每个服务只连接 subsetSize 个提供者, <= 0 表示全部连接
+         */
+        public DefaultClientBuilder subsetSize(int subsetSize) {
+            innerClient.subsetSize = subsetSize;
+            return this;
+        }
+
         public DefaultClient build() {
+            if (innerClient.clientId == null) {
+                innerClient.clientId = innerClient.clientAppName + "/" + ManagementFactory.getRuntimeMXBean().getName();
+            }
             return innerClient;
         }
     }
@@ -17,18 +17,29 @@ package org.neptune.rpc.client;
 
 import com.alibaba.fastjson2.JSON;
 import lombok.extern.slf4j.Slf4j;
-import org.neptune.common.UnresolvedAddress;
 import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.common.util.SysPropertyUtil;
 import org.neptune.registry.ServiceMeta;
 import org.neptune.rpc.*;
 import org.neptune.rpc.client.lb.LoadBalancer;
 import org.neptune.rpc.client.lb.LoadBalancerFactory;
+import org.neptune.rpc.client.lb.ProviderStats;
+import org.neptune.rpc.exec.RpcException;
 import org.neptune.rpc.factories.SerializerFactory;
 import org.neptune.rpc.seialize.Serializer;
+import org.neptune.rpc.seialize.io.NettyOutputBuf;
 
 import org.neptune.transport.RequestPayload;
+import org.neptune.transport.Status;
+import org.neptune.transport.connection.Connection;
+import org.neptune.transport.connection.ConnectionGroup;
+import org.neptune.transport.connection.OutboundQueue;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
+import org.neptune.transport.protocol.ProtocolEncoder;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * org.neptune.rpc.consumer - DefaultDispatcher
@@ -45,17 +56,26 @@ public class DefaultDispatcher implements Dispatcher {
             1. 负载均衡
             2. 拦截器拓展
             3. 业务数据序列化 && send 数据
-            4. 超时控制?
+            4. 超时控制 (基于连接器的时间轮, 见 DefaultInvokeFuture)
      */
 
+    // 选中的连接不可写(出站缓冲超过高水位)且没有其他可写的提供者时, 最多等待多久, 0 表示直接失败
+    private static final long WRITABLE_WAIT_MILLIS = SysPropertyUtil.getLong("neptune.rpc.client.writableWaitMillis", 50);
+
     private LoadBalancer loadBalancer;
     private Serializer serializer;
     private Client client;
 
-    public DefaultDispatcher(LoadBalancer.LoadBalancerType loadBalancerType, Serializer.SerializerType serializerType, Client client) {
-        this.loadBalancer = LoadBalancerFactory.create(loadBalancerType);
-        this.serializer = SerializerFactory.getSerializer(serializerType);
+    // 代理绑定的服务及其提供者快照, 注册中心变更时快照被整体替换, 这里只持有引用
+    private final ServiceMeta serviceMeta;
+    private final AtomicReference<ProviderSnapshot> providers;
+
+    public DefaultDispatcher(ServiceMeta serviceMeta, FactoryProxy factoryProxy, Client client) {
+        this.loadBalancer = LoadBalancerFactory.create(factoryProxy);
+        this.serializer = SerializerFactory.getSerializer(factoryProxy.getSerializerType());
         this.client = client;
+        this.serviceMeta = serviceMeta;
+        this.providers = client.providers(serviceMeta);
     }
 
     @Override
@@ -63,35 +83,108 @@ public class DefaultDispatcher implements Dispatcher {
         return send(request, returnType);
     }
 
-    // 匹配一个目标连接来
-    private Channel select(ServiceMeta serviceMeta) {
-        //TODO: load balance 是基于registry 的结果做的
-        //TODO: 这一层的抽象还是需要再看看
-        UnresolvedAddress address = loadBalancer.select(client.serviceSubscriber().serviceList(serviceMeta));
-        return client.getConnector().getAddressConnects(address).next().channel();
+    private ProviderSnapshot snapshot(ServiceMeta serviceMeta) {
+        // 一次 volatile 读拿到不可变快照, 之后只有数组访问
+        ProviderSnapshot snapshot = (serviceMeta == this.serviceMeta ? providers : client.providers(serviceMeta)).get();
+        if (snapshot.isEmpty()) {
+            throw new RpcException(Status.CLIENT_ERROR, "no provider available: " + serviceMeta.toFlatString());
+        }
+        return snapshot;
     }
 
 
     private <T> InvokeFuture<T> send(Request request, Class<T> returnType) {
         final long invokeId = request.getInvokeId();
 
-        // 对象序列化
-        RequestPayload payload = new RequestPayload(invokeId);
+        // 匹配一个目标连接来
+        ProviderSnapshot snapshot = snapshot(request.getBody().getMetadata());
+        int index = loadBalancer.select(snapshot, request);
+        Connection connection = next(snapshot, index);
+        if (isBackedUp(connection)) {
+            // 背压(出站缓冲超过高水位或者请求信用用完): 先换一个可写的提供者, 没有时在 deadline 内等待, 仍不可写则快速失败
+            int alternative = writableAlternative(snapshot, index);
+            if (alternative >= 0) {
+                index = alternative;
+                connection = next(snapshot, index);
+            } else {
+                awaitWritable(connection, request.getTimeoutMillis());
+            }
+        }
+        ProviderStats stats = snapshot.stats(index);
+        Channel ch = connection.channel();
+        if (ch == null || !ch.isActive()) {
+            // 选出之后(或者等待可写期间)连接断开了
+            throw new RpcException(Status.CLIENT_ERROR, "connection to " + connection.remoteAddress() + " is not active");
+        }
+
+        // 对象序列化, 直接写入出站帧 (预留协议头, 由 encoder 回填), 省去 byte[] 中转
+        ByteBuf frame = ProtocolEncoder.allocateFrame(ch.alloc());
+        try {
+            serializer.writeObject(new NettyOutputBuf(frame), request.getBody());
+        } catch (Throwable t) {
+            frame.release();
+            throw t;
+        }
+        RequestPayload payload = RequestPayload.newInstance(invokeId);
         payload.setSerialTypeCode(serializer.typeCode());
-        payload.setBytes(serializer.writeObject(request.getBody()));
-        Channel ch = select(request.getBody().getMetadata());
+        payload.setByteBuf(frame);
 
-        DefaultInvokeFuture<T> invokeFuture = new DefaultInvokeFuture<>(ch, invokeId, returnType);
-        ch.writeAndFlush(payload).addListener(
-                // TODO:加入发送超时监控, writeAndFlush
+        // 先登记到连接的在途请求表, 再发送, 保证响应到达时一定能找到 future
+        DefaultInvokeFuture<T> invokeFuture = new DefaultInvokeFuture<>(
+                connection, invokeId, returnType, client.getConnector().timer(), request.getTimeoutMillis(), stats);
+        // 进入出站队列, 由 event loop 批量写出并合并 flush
+        OutboundQueue.write(ch, payload).addListener(
                 (ChannelFutureListener) cf -> {
                     if (cf.isSuccess()) { // success
                         invokeFuture.sentSuccess();
                     } else { // fail
-                        invokeFuture.sentFailure();
+                        invokeFuture.sentFailure(cf.cause());
                     }
                 });
         return invokeFuture;
     }
 
+    // 选中的提供者没有可用的连接(还没连上或者都断开了)时快速失败
+    private static Connection next(ProviderSnapshot snapshot, int index) {
+        ConnectionGroup group = snapshot.group(index);
+        Connection connection = group == null ? null : group.next();
+        if (connection == null) {
+            throw new RpcException(Status.CLIENT_ERROR, "no active connection to " + snapshot.address(index));
+        }
+        return connection;
+    }
+
+    private static boolean isBackedUp(Connection connection) {
+        Channel ch = connection.channel();
+        // 选出之后才断开的连接不在这里处理, 发送前会再检查一次
+        return ch != null && ch.isActive() && !connection.isWritable();
+    }
+
+    private static int writableAlternative(ProviderSnapshot snapshot, int index) {
+        int n = snapshot.size();
+        for (int k = 1; k < n; k++) {
+            int i = (index + k) % n;
+            ConnectionGroup group = snapshot.group(i);
+            Connection connection = group == null ? null : group.next();
+            if (connection != null && !isBackedUp(connection)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void awaitWritable(Connection connection, long timeoutMillis) {
+        long waitMillis = Math.min(WRITABLE_WAIT_MILLIS, timeoutMillis);
+        try {
+            if (waitMillis > 0 && connection.awaitWritable(waitMillis)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new RpcException(Status.CLIENT_ERROR, "connection to " + connection.remoteAddress()
+                + " is not writable, pending outbound bytes: " + connection.pendingOutboundBytes()
+                + ", in flight: " + connection.inFlight().size());
+    }
+
 }
@@ -2,10 +2,14 @@ package org.neptune.rpc.client;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.Singular;
+import org.neptune.common.util.SysPropertyUtil;
 import org.neptune.rpc.client.cluster.ClusterInvoker;
 import org.neptune.rpc.client.lb.LoadBalancer;
 import org.neptune.rpc.seialize.Serializer;
 
+import java.util.Map;
+
 /**
  * @desc TODO
  *
@@ -15,11 +19,30 @@ import org.neptune.rpc.seialize.Serializer;
 @Builder
 @Getter
 public class FactoryProxy {
+    @Builder.Default
     private final Serializer.SerializerType serializerType = Serializer.SerializerType.getDefault();
+    @Builder.Default
     private final LoadBalancer.LoadBalancerType loadBalancerType = LoadBalancer.LoadBalancerType.getDefault();
+    @Builder.Default
     private final ClusterInvoker.ClusterStrategy clusterStrategy = ClusterInvoker.ClusterStrategy.getDefault();
+    @Builder.Default
     private final boolean asyncInvoke = false;
 
+    // 服务级别的调用超时(毫秒), <= 0 表示不超时
+    @Builder.Default
+    private final long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    // 方法级别的调用超时(毫秒), 优先于服务级别
+    @Singular
+    private final Map<String, Long> methodTimeouts;
+    // 一致性 hash 负载均衡时作为 key 的参数下标
+    @Builder.Default
+    private final int hashArgIndex = 0;
+    // 方法级别的 key 参数下标, 优先于服务级别
+    @Singular
+    private final Map<String, Integer> methodHashArgIndexes;
+
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = SysPropertyUtil.getLong("neptune.rpc.invoke.timeoutMillis", 3000);
 
     private static final FactoryProxy DEFAULT_FACTORY_PROXY = FactoryProxy.builder().build();
 
@@ -27,4 +50,14 @@ public class FactoryProxy {
         return DEFAULT_FACTORY_PROXY;
     }
 
+    public long timeoutMillis(String methodName) {
+        Long timeout = methodTimeouts.get(methodName);
+        return timeout == null ? timeoutMillis : timeout;
+    }
+
+    public int hashArgIndex(String methodName) {
+        Integer index = methodHashArgIndexes.get(methodName);
+        return index == null ? hashArgIndex : index;
+    }
+
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client;
+
+import org.neptune.common.UnresolvedAddress;
+import org.neptune.registry.RegistryMeta;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.client.lb.ProviderStats;
+import org.neptune.transport.connection.ConnectionGroup;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * org.neptune.rpc.client - ProviderSnapshot
+ * 某个服务在某一时刻的提供者列表, 注册中心每次变更时整体重建并替换, 创建之后不再修改:
+ * <p>
+ * 1. 地址, 权重(已归一化), 权重前缀和以及对应的 {@link ConnectionGroup}, {@link ProviderStats} 都在构建时算好, 调用路径上只有数组访问;
+ * 2. 负载均衡器可以按快照的引用缓存由它计算出来的选择表, 快照不变选择表就一直有效.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 18:10
+ */
+public final class ProviderSnapshot {
+
+    private static final RegistryMeta[] NO_PROVIDERS = new RegistryMeta[0];
+
+    private final ServiceMeta serviceMeta;
+    private final RegistryMeta[] providers;
+    private final UnresolvedAddress[] addresses;
+    private final ConnectionGroup[] groups;
+    private final ProviderStats[] stats;
+    private final int[] weights;
+    private final long[] prefixSums; // prefixSums[i] = weights[0] + ... + weights[i]
+    private final boolean weighted;  // 权重是否不全相等
+
+    private ProviderSnapshot(ServiceMeta serviceMeta, RegistryMeta[] providers,
+                             Function<UnresolvedAddress, ConnectionGroup> groupResolver,
+                             Function<UnresolvedAddress, ProviderStats> statsResolver) {
+        int n = providers.length;
+        this.serviceMeta = serviceMeta;
+        this.providers = providers;
+        this.addresses = new UnresolvedAddress[n];
+        this.groups = new ConnectionGroup[n];
+        this.stats = new ProviderStats[n];
+        this.weights = new int[n];
+        this.prefixSums = new long[n];
+
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            addresses[i] = providers[i].getAddress();
+            if (groupResolver != null) {
+                groups[i] = groupResolver.apply(addresses[i]);
+            }
+            stats[i] = statsResolver == null ? new ProviderStats() : statsResolver.apply(addresses[i]);
+            weights[i] = Math.max(0, providers[i].getWight());
+            total += weights[i];
+        }
+        if (total == 0) {
+            // 全部没有配置权重时按等权处理
+            Arrays.fill(weights, 1);
+        }
+        boolean w = false;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += weights[i];
+            prefixSums[i] = sum;
+            w |= weights[i] != weights[0];
+        }
+        this.weighted = w;
+    }
+
+    /**
+     * @param providers     快照持有这个数组, 调用方之后不能再修改它
+     * @param groupResolver 地址到连接组的映射, 为 null 时不解析连接组
+     * @param statsResolver 地址到负载统计的映射, 同一个地址需要返回同一个对象, 快照替换后统计才能延续; 为 null 时每个快照独立统计
+     */
+    public static ProviderSnapshot of(ServiceMeta serviceMeta, RegistryMeta[] providers,
+                                      Function<UnresolvedAddress, ConnectionGroup> groupResolver,
+                                      Function<UnresolvedAddress, ProviderStats> statsResolver) {
+        return new ProviderSnapshot(serviceMeta, providers == null ? NO_PROVIDERS : providers, groupResolver, statsResolver);
+    }
+
+    public ServiceMeta serviceMeta() {
+        return serviceMeta;
+    }
+
+    public int size() {
+        return providers.length;
+    }
+
+    public boolean isEmpty() {
+        return providers.length == 0;
+    }
+
+    public RegistryMeta provider(int index) {
+        return providers[index];
+    }
+
+    public UnresolvedAddress address(int index) {
+        return addresses[index];
+    }
+
+    public ConnectionGroup group(int index) {
+        return groups[index];
+    }
+
+    public ProviderStats stats(int index) {
+        return stats[index];
+    }
+
+    public int weight(int index) {
+        return weights[index];
+    }
+
+    public long totalWeight() {
+        return providers.length == 0 ? 0 : prefixSums[providers.length - 1];
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    /**
+     * 把 [0, totalWeight) 上的一个点映射到它落入的提供者下标, 二分查找前缀和, O(log n)
+     */
+    public int locate(long point) {
+        int low = 0;
+        int high = prefixSums.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefixSums[mid] > point) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderSnapshot{" + serviceMeta + ", providers=" + Arrays.toString(addresses) + ", weights=" + Arrays.toString(weights) + '}';
+    }
+}
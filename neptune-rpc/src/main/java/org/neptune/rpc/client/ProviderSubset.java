@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client;
+
+import org.neptune.common.UnresolvedAddress;
+import org.neptune.registry.RegistryMeta;
+
+import java.util.Arrays;
+
+/**
+ * org.neptune.rpc.client - ProviderSubset
+ * 客户端侧的服务子集划分(rendezvous hashing): 每个客户端只连接服务提供者中的 K 个, 避免大规模集群下 客户端数 * 服务数 的全连接
+ * <p>
+ * 1. 对每个提供者计算 hash(客户端ID, 地址), 取分数最高的 K 个, 结果只取决于客户端ID和提供者集合, 重启后不变;
+ * 2. 提供者下线时, 只有包含它的客户端会补入一个新的提供者, 其余 K - 1 个不变; 提供者上线时, 只有它分数进入前 K 的客户端(约 K / N)会换入它;
+ * 3. 不同客户端的分数相互独立, 每个提供者期望被 客户端数 * K / N 个客户端选中.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 20:30
+ */
+public final class ProviderSubset {
+
+    private ProviderSubset() {
+    }
+
+    /**
+     * @param size 子集大小, <= 0 或者不小于提供者数量时返回全部
+     * @return 选中的提供者, 保持在原列表中的顺序
+     */
+    public static RegistryMeta[] select(String clientId, RegistryMeta[] providers, int size) {
+        int n = providers.length;
+        if (size <= 0 || n <= size) {
+            return providers;
+        }
+        long seed = hash(clientId);
+        long[] scores = new long[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = score(seed, providers[i].getAddress());
+        }
+        long[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        long threshold = sorted[n - size];
+
+        RegistryMeta[] subset = new RegistryMeta[size];
+        int k = 0;
+        for (int i = 0; i < n && k < size; i++) {
+            if (scores[i] >= threshold) {
+                subset[k++] = providers[i];
+            }
+        }
+        return subset;
+    }
+
+    static long score(long seed, UnresolvedAddress address) {
+        long h = hash(address.host()) * 31 + address.port();
+        return mix(seed ^ mix(h));
+    }
+
+    // FNV-1a, String.hashCode 只有 32 位, 客户端很多时容易碰撞
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // splitmix64 的 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
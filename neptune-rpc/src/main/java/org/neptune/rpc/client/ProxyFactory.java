@@ -71,13 +71,14 @@ public class ProxyFactory<I> {
     public I newInstance() {
         requireNotNull(interfaceClass, "proxy interface  must be assigned");
 
-        Dispatcher dispatcher = new DefaultDispatcher(factoryProxy.getLoadBalancerType(), factoryProxy.getSerializerType(), client);
+        Dispatcher dispatcher = new DefaultDispatcher(serviceMeta, factoryProxy, client);
         ClusterInvoker clusterInvoker = ClusterInvokerFactory.create(factoryProxy.getClusterStrategy());
         Object handler = new ByteBuddyInvocationHandlerBridge(
                 clusterInvoker,
                 serviceMeta,
                 client,
-                dispatcher,factoryProxy.isAsyncInvoke()
+                dispatcher,
+                factoryProxy
         );
         return FactoryDelegate.BYTE_BUDDY.newProxy(interfaceClass, handler);
     }
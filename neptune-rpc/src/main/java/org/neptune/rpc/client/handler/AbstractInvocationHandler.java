@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.neptune.rpc.*;
 import org.neptune.rpc.client.Client;
 import org.neptune.rpc.client.Dispatcher;
+import org.neptune.rpc.client.FactoryProxy;
 import org.neptune.rpc.client.cluster.ClusterInvoker;
 import org.neptune.registry.ServiceMeta;
 
@@ -37,12 +38,19 @@ public abstract class AbstractInvocationHandler {
     protected ServiceMeta serviceMeta;
     protected Client client;
     protected Dispatcher dispatcher;
+    protected FactoryProxy factoryProxy;
     protected boolean invokeAsync;
 
     protected Object doInvoke(String methodName, Object[] args, Class<?> returnType) throws Throwable {
         Request request = createRequest(methodName, args);
         //执行上下文, 用来在多个执行流中传递
-        InvokeFuture<?> resultFuture = clusterInvoker.invoke(dispatcher, request, returnType);
+        InvokeFuture<?> resultFuture;
+        try {
+            resultFuture = clusterInvoker.invoke(dispatcher, request, returnType);
+        } finally {
+            // 请求体已经序列化进出站帧, 归还对象池
+            request.recycle();
+        }
         if (!invokeAsync) {
             return resultFuture.result();
         }
@@ -50,12 +58,13 @@ public abstract class AbstractInvocationHandler {
     }
 
     private Request createRequest(String methodName, Object[] args) {
-        RequestBody body = new RequestBody(serviceMeta);
+        RequestBody body = RequestBody.newInstance(serviceMeta);
         body.setMethodName(methodName);
         body.setArgs(args);
         body.setAppName(client.getClientAppName());
-        Request request = new Request(10100000L); // TODO: distribute unique ID
+        Request request = Request.newInstance(client.nextInvokeId());
         request.setBody(body);
+        request.setTimeoutMillis(factoryProxy.timeoutMillis(methodName));
         return request;
     }
 }
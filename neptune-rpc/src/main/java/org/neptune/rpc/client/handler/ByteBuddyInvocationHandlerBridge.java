@@ -18,6 +18,7 @@ package org.neptune.rpc.client.handler;
 import org.neptune.registry.ServiceMeta;
 import org.neptune.rpc.client.Client;
 import org.neptune.rpc.client.Dispatcher;
+import org.neptune.rpc.client.FactoryProxy;
 import org.neptune.rpc.client.cluster.ClusterInvoker;
 import net.bytebuddy.implementation.bind.annotation.AllArguments;
 import net.bytebuddy.implementation.bind.annotation.Origin;
@@ -36,12 +37,13 @@ public class ByteBuddyInvocationHandlerBridge extends AbstractInvocationHandler
     public ByteBuddyInvocationHandlerBridge(ClusterInvoker clusterInvoker,
                                             ServiceMeta meta,
                                             Client client,
-                                            Dispatcher dispatcher, boolean invokeAsync) {
+                                            Dispatcher dispatcher, FactoryProxy factoryProxy) {
         this.clusterInvoker = clusterInvoker;
         this.serviceMeta = meta;
         this.client = client;
         this.dispatcher = dispatcher;
-        this.invokeAsync = invokeAsync;
+        this.factoryProxy = factoryProxy;
+        this.invokeAsync = factoryProxy.isAsyncInvoke();
     }
 
     @RuntimeType
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client.lb;
+
+import org.neptune.common.UnresolvedAddress;
+import org.neptune.common.util.SysPropertyUtil;
+import org.neptune.rpc.Request;
+import org.neptune.rpc.RequestBody;
+import org.neptune.rpc.client.ProviderSnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * org.neptune.rpc.client.lb - ConsistentHashLoadBalancer
+ * 一致性 hash (ketama): 同一个 key 总是落到同一个节点上, 节点上下线只影响它自己负责的那部分 key,
+ * 适合提供者本地有热点缓存的场景
+ * <p>
+ * 1. 每个节点按 权重 * 每单位权重虚拟节点数 在环上放置虚拟节点, 位置由 md5("host:port-i") 计算, 一次 md5 产生 4 个虚拟节点;
+ * 2. key 取自调用参数的某一个下标, 没有 key 的调用退化为随机;
+ * 3. 快照变化时增量重建: 地址和虚拟节点数都没变的节点沿用原来的位置, 只为新节点计算 md5, 再与原有的环归并, 不需要整体排序;
+ * 4. 查找是一次二分, O(log 虚拟节点总数).
+ * <p>
+ * 注意 key 的 hashCode 需要在不同进程之间稳定(String, 数值类型等), 否则不同调用方的路由结果会不一致.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 19:40
+ */
+public class ConsistentHashLoadBalancer implements LoadBalancer {
+
+    // 每单位权重的虚拟节点数
+    private static final int DEFAULT_VIRTUAL_NODES = SysPropertyUtil.getInt("neptune.rpc.lb.hash.virtualNodes", 160);
+    // 环上虚拟节点总数的上限, 超过时按比例减少每单位权重的虚拟节点数
+    private static final int MAX_RING_POINTS = 1 << 20;
+
+    private final ToIntFunction<String> argIndex;
+    private final int virtualNodes;
+
+    private volatile Ring ring;
+
+    public ConsistentHashLoadBalancer() {
+        this(method -> 0);
+    }
+
+    /**
+     * @param argIndex 方法名到作为 hash key 的参数下标的映射
+     */
+    public ConsistentHashLoadBalancer(ToIntFunction<String> argIndex) {
+        this(argIndex, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashLoadBalancer(ToIntFunction<String> argIndex, int virtualNodes) {
+        this.argIndex = argIndex;
+        this.virtualNodes = Math.max(1, virtualNodes);
+    }
+
+    @Override
+    public int select(ProviderSnapshot snapshot) {
+        // 没有 key
+        return snapshot.size() == 1 ? 0 : ThreadLocalRandom.current().nextInt(snapshot.size());
+    }
+
+    @Override
+    public int select(ProviderSnapshot snapshot, Request request) {
+        RequestBody body = request.getBody();
+        Object[] args = body.getArgs();
+        int index = argIndex.applyAsInt(body.getMethodName());
+        if (args == null || index < 0 || index >= args.length || args[index] == null) {
+            return select(snapshot);
+        }
+        return select(snapshot, args[index]);
+    }
+
+    public int select(ProviderSnapshot snapshot, Object key) {
+        if (snapshot.size() == 1) {
+            return 0;
+        }
+        Ring r = ring;
+        if (r == null || r.snapshot != snapshot) {
+            // 并发重建是无害的, 结果相同, 最后一个写入者生效
+            ring = r = new Ring(snapshot, r, virtualNodes);
+        }
+        return r.lookup(hash(key));
+    }
+
+    /**
+     * key 的 hash, 对 hashCode 再做一次 murmur3 的 fmix32 让分布更均匀
+     */
+    static int hash(Object key) {
+        int h = key instanceof Enum ? ((Enum<?>) key).name().hashCode() : key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static final class Ring {
+
+        final ProviderSnapshot snapshot;
+        // 已排序; 存的是 hash ^ 0x80000000, 这样按有符号比较就是按无符号的 hash 排序
+        final int[] points;
+        final int[] owners; // 虚拟节点所属的快照下标
+        private final Node[] nodes;
+        private final Map<UnresolvedAddress, Integer> indexes;
+
+        Ring(ProviderSnapshot snapshot, Ring previous, int virtualNodes) {
+            this.snapshot = snapshot;
+            int n = snapshot.size();
+            this.nodes = new Node[n];
+            this.indexes = new HashMap<>(n * 2);
+
+            long totalWeight = snapshot.totalWeight();
+            int perUnit = (int) Math.max(1, Math.min(virtualNodes, MAX_RING_POINTS / Math.max(1, totalWeight)));
+
+            // 1. 能沿用的节点直接沿用, 其余的重新计算
+            int[] remap = previous == null ? new int[0] : new int[previous.nodes.length];
+            Arrays.fill(remap, -1);
+            boolean[] reused = new boolean[n];
+            int total = 0;
+            int freshPoints = 0;
+            for (int i = 0; i < n; i++) {
+                UnresolvedAddress address = snapshot.address(i);
+                indexes.put(address, i);
+                int replicas = (snapshot.weight(i) * perUnit + 3) & ~3; // 4 的倍数
+                Integer old = previous == null ? null : previous.indexes.get(address);
+                if (old != null && previous.nodes[old].replicas == replicas && remap[old] < 0) {
+                    nodes[i] = previous.nodes[old];
+                    remap[old] = i;
+                    reused[i] = true;
+                } else {
+                    nodes[i] = new Node(address, replicas);
+                    freshPoints += replicas;
+                }
+                total += replicas;
+            }
+
+            // 2. 新节点的虚拟节点排序
+            long[] fresh = new long[freshPoints];
+            int f = 0;
+            for (int i = 0; i < n; i++) {
+                if (reused[i]) {
+                    continue;
+                }
+                for (int p : nodes[i].points) {
+                    fresh[f++] = ((long) p << 32) | i;
+                }
+            }
+            Arrays.sort(fresh);
+
+            // 3. 与原有环上仍然存活的虚拟节点归并
+            points = new int[total];
+            owners = new int[total];
+            int k = 0;
+            int j = 0;
+            int[] oldPoints = previous == null ? new int[0] : previous.points;
+            int[] oldOwners = previous == null ? new int[0] : previous.owners;
+            for (int o = 0; o < oldPoints.length; o++) {
+                int owner = remap[oldOwners[o]];
+                if (owner < 0) {
+                    continue; // 节点已下线或者虚拟节点数变了
+                }
+                int p = oldPoints[o];
+                while (j < fresh.length && (int) (fresh[j] >> 32) < p) {
+                    points[k] = (int) (fresh[j] >> 32);
+                    owners[k++] = (int) fresh[j++];
+                }
+                points[k] = p;
+                owners[k++] = owner;
+            }
+            while (j < fresh.length) {
+                points[k] = (int) (fresh[j] >> 32);
+                owners[k++] = (int) fresh[j++];
+            }
+        }
+
+        int lookup(int hash) {
+            int key = hash ^ 0x80000000;
+            int low = 0;
+            int high = points.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (points[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            // 超过最后一个虚拟节点时回到环的起点
+            return owners[low == points.length ? 0 : low];
+        }
+    }
+
+    static final class Node {
+
+        final UnresolvedAddress address;
+        final int replicas;
+        final int[] points; // 已经是 hash ^ 0x80000000
+
+        Node(UnresolvedAddress address, int replicas) {
+            this.address = address;
+            this.replicas = replicas;
+            this.points = new int[replicas];
+            MessageDigest md5 = md5();
+            String prefix = address.host() + ":" + address.port() + "-";
+            for (int r = 0; r < replicas / 4; r++) {
+                byte[] digest = md5.digest((prefix + r).getBytes(StandardCharsets.UTF_8));
+                for (int h = 0; h < 4; h++) {
+                    int point = (digest[3 + h * 4] & 0xFF) << 24
+                            | (digest[2 + h * 4] & 0xFF) << 16
+                            | (digest[1 + h * 4] & 0xFF) << 8
+                            | (digest[h * 4] & 0xFF);
+                    points[r * 4 + h] = point ^ 0x80000000;
+                }
+            }
+        }
+
+        private static MessageDigest md5() {
+            try {
+                return MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 not supported", e);
+            }
+        }
+    }
+}
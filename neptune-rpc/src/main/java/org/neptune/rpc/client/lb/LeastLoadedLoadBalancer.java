@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client.lb;
+
+import org.neptune.rpc.client.ProviderSnapshot;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * org.neptune.rpc.client.lb - LeastLoadedLoadBalancer
+ * 最小负载(power of two choices): 随机取两个不同的节点, 选 EWMA 耗时 * (在途请求数 + 1) 更小的一个
+ * <p>
+ * 只比较两个节点就能避开慢节点/GC 中的节点/过载节点, 又不会像全量取最小那样让所有调用方同时涌向同一个节点;
+ * 选择路径只有两次随机数和几次 volatile 读, 没有锁. 不考虑权重.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 19:00
+ */
+public class LeastLoadedLoadBalancer implements LoadBalancer {
+
+    @Override
+    public int select(ProviderSnapshot snapshot) {
+        int length = snapshot.size();
+        if (length == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(length);
+        int b = random.nextInt(length - 1);
+        if (b >= a) {
+            b++;
+        }
+        long now = System.nanoTime();
+        return snapshot.stats(a).cost(now) <= snapshot.stats(b).cost(now) ? a : b;
+    }
+}
@@ -15,12 +15,8 @@
  */
 package org.neptune.rpc.client.lb;
 
-import io.netty.channel.Channel;
-import org.neptune.common.UnresolvedAddress;
-import org.neptune.registry.RegistryMeta;
-
-import java.util.Collection;
-import java.util.Set;
+import org.neptune.rpc.Request;
+import org.neptune.rpc.client.ProviderSnapshot;
 
 
 /**
@@ -33,16 +29,29 @@ public interface LoadBalancer {
 
     /*
         README: 考虑并发管理
+            select 会被所有调用线程并发调用, 实现需要是线程安全的, 并且尽量无锁
+     */
+
+    /**
+     * @param snapshot 不能为空列表, 由调用方保证; 快照是不可变的, 实现类可以按引用缓存由它计算出来的选择表
+     * @return 选中的提供者在快照中的下标
      */
+    int select(ProviderSnapshot snapshot);
 
-    UnresolvedAddress select(Set<RegistryMeta> registryInstances);
+    /**
+     * 需要根据请求内容选择的实现(比如一致性 hash)覆盖这个方法, 默认与请求无关
+     */
+    default int select(ProviderSnapshot snapshot, Request request) {
+        return select(snapshot);
+    }
 
     enum LoadBalancerType{
         RANDOM(1), // 随机法
         ROUND_ROBIN(2), // 轮询
         WEIGHT_RANDOM(3), // 加权随机
         WEIGHT_ROUND_ROBIN(4), // 加权轮询
-        HASH(5), // 一致性hash, 源地址一致性 hash
+        HASH(5), // 一致性hash, 按调用参数做 ketama 一致性 hash
+        LEAST_LOADED(6), // 最小负载, 按 EWMA 耗时与在途请求数做 power of two choices
         ;
         private final int code;
 
@@ -15,15 +15,46 @@
  */
 package org.neptune.rpc.client.lb;
 
+import lombok.extern.slf4j.Slf4j;
+import org.neptune.rpc.client.FactoryProxy;
+
 /**
  * org.neptune.rpc.consumer - LoadBalancerFactory
+ * 负载均衡器是有状态的(轮询下标/预计算的选择表), 每个代理对象创建一个
  *
  * @author tony-is-coding
  * @date 2021/12/27 16:14
  */
+@Slf4j
 public class LoadBalancerFactory {
 
+    public static LoadBalancer create(FactoryProxy factoryProxy) {
+        if (factoryProxy.getLoadBalancerType() == LoadBalancer.LoadBalancerType.HASH) {
+            return new ConsistentHashLoadBalancer(factoryProxy::hashArgIndex);
+        }
+        return create(factoryProxy.getLoadBalancerType());
+    }
+
     public static LoadBalancer create(LoadBalancer.LoadBalancerType type){
-        return new RandomLoadBalancer();
+        if (type == null) {
+            type = LoadBalancer.LoadBalancerType.getDefault();
+        }
+        switch (type) {
+            case RANDOM:
+                return new RandomLoadBalancer();
+            case ROUND_ROBIN:
+                return new RoundRobinLoadBalancer();
+            case WEIGHT_RANDOM:
+                return new WeightRandomLoadBalancer();
+            case WEIGHT_ROUND_ROBIN:
+                return new WeightRoundRobinLoadBalancer();
+            case HASH:
+                return new ConsistentHashLoadBalancer();
+            case LEAST_LOADED:
+                return new LeastLoadedLoadBalancer();
+            default:
+                log.warn("load balancer {} is not supported yet, fallback to {}", type, LoadBalancer.LoadBalancerType.RANDOM);
+                return new RandomLoadBalancer();
+        }
     }
 }
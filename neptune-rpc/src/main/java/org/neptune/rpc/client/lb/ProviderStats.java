@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client.lb;
+
+import org.neptune.common.util.SysPropertyUtil;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * org.neptune.rpc.client.lb - ProviderStats
+ * 单个服务地址的负载统计: 在途请求数 + 响应耗时的 EWMA(peak EWMA), 由 {@link org.neptune.rpc.DefaultInvokeFuture} 完成时回填
+ * <p>
+ * 1. 耗时高于当前均值时直接取新值(快速感知变慢), 低于时按距上次采样的时间做指数衰减平均(缓慢恢复);
+ * 2. 读取时按空闲时长向 0 衰减, 长时间没有流量的慢节点会重新被尝试, 不会被永久冷落;
+ * 3. 只有计数是原子的, 耗时统计允许并发更新时丢失个别采样, 读写都不加锁.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 19:00
+ */
+public final class ProviderStats {
+
+    private static final AtomicIntegerFieldUpdater<ProviderStats> INFLIGHT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ProviderStats.class, "inflight");
+
+    // 统计的衰减时间窗口
+    private static final double DECAY_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Math.max(1, SysPropertyUtil.getLong("neptune.rpc.lb.decayMillis", 10_000)));
+
+    // 还没有耗时样本的节点, 有在途请求时的代价: 大于任何真实耗时, 让新节点先用少量请求完成探测
+    private static final double PENALTY = TimeUnit.SECONDS.toNanos(60);
+
+    private volatile int inflight;
+    private volatile double ewmaNanos;
+    private volatile long lastNanos = System.nanoTime();
+
+    /**
+     * 请求发出前调用
+     *
+     * @return 开始时间, 完成时传给 {@link #finish(long)}
+     */
+    public long start() {
+        INFLIGHT_UPDATER.incrementAndGet(this);
+        return System.nanoTime();
+    }
+
+    /**
+     * 请求完成(包括失败和超时)时调用, 超时的耗时就是超时时间, 自然会抬高代价
+     */
+    public void finish(long startNanos) {
+        INFLIGHT_UPDATER.decrementAndGet(this);
+        long now = System.nanoTime();
+        long rtt = Math.max(0, now - startNanos);
+        double ewma = ewmaNanos;
+        if (rtt > ewma) {
+            ewmaNanos = rtt;
+        } else {
+            double w = decay(now - lastNanos);
+            ewmaNanos = ewma * w + rtt * (1 - w);
+        }
+        lastNanos = now;
+    }
+
+    public int inflight() {
+        return inflight;
+    }
+
+    /**
+     * 当前的 EWMA 耗时(已按空闲时长衰减), 纳秒
+     */
+    public double latency(long now) {
+        double ewma = ewmaNanos;
+        return ewma == 0 ? 0 : ewma * decay(now - lastNanos);
+    }
+
+    /**
+     * 选择代价: latency * (inflight + 1), 越小越好
+     */
+    public double cost(long now) {
+        int pending = inflight;
+        double latency = latency(now);
+        if (latency == 0 && pending != 0) {
+            return PENALTY + pending;
+        }
+        return latency * (pending + 1);
+    }
+
+    private static double decay(long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return 1.0;
+        }
+        double x = elapsedNanos / DECAY_NANOS;
+        // 超过 32 个窗口已经可以视为完全衰减, 同时避开 exp 在结果接近下溢时的慢路径
+        return x > 32 ? 0 : Math.exp(-x);
+    }
+}
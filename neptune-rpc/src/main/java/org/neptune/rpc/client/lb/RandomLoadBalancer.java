@@ -15,27 +15,26 @@
  */
 package org.neptune.rpc.client.lb;
 
-import io.netty.channel.Channel;
-import org.neptune.common.UnresolvedAddress;
-import org.neptune.registry.RegistryMeta;
+import org.neptune.rpc.client.ProviderSnapshot;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * org.neptune.rpc.consumer.lb - RandomLoadBalancer
+ * 等概率随机, 不考虑权重
  *
  * @author tony-is-coding
  * @date 2021/12/27 16:19
  */
 public class RandomLoadBalancer implements LoadBalancer {
-    private static final ThreadLocal<Random> random = ThreadLocal.withInitial(Random::new);
 
     @Override
-    public UnresolvedAddress select(Set<RegistryMeta> registryInstances) {
-        return registryInstances.stream().findFirst().get().getAddress();
+    public int select(ProviderSnapshot snapshot) {
+        int length = snapshot.size();
+        if (length == 1) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextInt(length);
     }
 
 }
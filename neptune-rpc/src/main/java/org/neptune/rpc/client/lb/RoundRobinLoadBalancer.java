@@ -15,17 +15,13 @@
  */
 package org.neptune.rpc.client.lb;
 
-import io.netty.channel.Channel;
-import org.neptune.common.UnresolvedAddress;
-import org.neptune.registry.RegistryMeta;
+import org.neptune.rpc.client.ProviderSnapshot;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * org.neptune.rpc.consumer.lb - RoundRobinLoadBalancer
+ * 轮询, 不考虑权重
  *
  * @author tony-is-coding
  * @date 2021/12/27 17:04
@@ -37,7 +33,13 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
     private volatile int index = 0;
 
     @Override
-    public UnresolvedAddress select(Set<RegistryMeta> registryInstances) {
-        return registryInstances.stream().findFirst().get().getAddress();
+    public int select(ProviderSnapshot snapshot) {
+        int length = snapshot.size();
+        if (length == 1) {
+            return 0;
+        }
+        // 溢出后取正数部分继续轮询
+        int i = UPDATER.getAndIncrement(this) & Integer.MAX_VALUE;
+        return i % length;
     }
 }
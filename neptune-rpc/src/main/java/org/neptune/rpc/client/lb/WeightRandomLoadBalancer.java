@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client.lb;
+
+import org.neptune.rpc.client.ProviderSnapshot;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * org.neptune.rpc.client.lb - WeightRandomLoadBalancer
+ * 加权随机:
+ * <p>
+ * 1. 服务数较少时直接在快照的权重前缀和上二分, 不需要额外的表;
+ * 2. 服务数较多时使用 alias method (Vose): 每个快照预先计算一次概率表与别名表, 之后每次选择只需要两次随机数 + 一次数组访问, O(1).
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 17:10
+ */
+public class WeightRandomLoadBalancer implements LoadBalancer {
+
+    // 不超过这个数量时二分前缀和比查 alias 表更快
+    private static final int ALIAS_THRESHOLD = 16;
+
+    private volatile AliasTable table;
+
+    @Override
+    public int select(ProviderSnapshot snapshot) {
+        int length = snapshot.size();
+        if (length == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (!snapshot.isWeighted()) {
+            return random.nextInt(length);
+        }
+        if (length <= ALIAS_THRESHOLD) {
+            return snapshot.locate(random.nextLong(snapshot.totalWeight()));
+        }
+        AliasTable t = table;
+        if (t == null || t.snapshot != snapshot) {
+            // 并发重建是无害的, 结果相同, 最后一个写入者生效
+            table = t = new AliasTable(snapshot);
+        }
+        int i = random.nextInt(length);
+        return random.nextDouble() < t.probability[i] ? i : t.alias[i];
+    }
+
+    static final class AliasTable {
+
+        final ProviderSnapshot snapshot;
+        final double[] probability;
+        final int[] alias;
+
+        AliasTable(ProviderSnapshot snapshot) {
+            this.snapshot = snapshot;
+            int n = snapshot.size();
+            long totalWeight = snapshot.totalWeight();
+            probability = new double[n];
+            alias = new int[n];
+
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallSize = 0;
+            int largeSize = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = (double) snapshot.weight(i) * n / totalWeight;
+                if (scaled[i] < 1.0) {
+                    small[smallSize++] = i;
+                } else {
+                    large[largeSize++] = i;
+                }
+            }
+            while (smallSize > 0 && largeSize > 0) {
+                int less = small[--smallSize];
+                int more = large[--largeSize];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallSize++] = more;
+                } else {
+                    large[largeSize++] = more;
+                }
+            }
+            // 剩下的(包括浮点误差造成的)都是满格
+            while (largeSize > 0) {
+                probability[large[--largeSize]] = 1.0;
+            }
+            while (smallSize > 0) {
+                probability[small[--smallSize]] = 1.0;
+            }
+        }
+    }
+}
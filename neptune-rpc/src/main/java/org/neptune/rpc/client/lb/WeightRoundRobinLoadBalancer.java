@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.client.lb;
+
+import org.neptune.rpc.client.ProviderSnapshot;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * org.neptune.rpc.client.lb - WeightRoundRobinLoadBalancer
+ * 平滑加权轮询(nginx smooth weighted round-robin): 权重 {5, 1, 1} 的选择序列为 a a b a c a a, 而不是 a a a a a b c.
+ * <p>
+ * 1. 一个完整周期(权重之和 / 最大公约数)的选择序列是确定的, 周期不太长时预先算好, 之后每次选择只是一次原子自增 + 数组访问;
+ * 2. 周期过长(权重很大且互质)时退化为每次 O(n) 的标准算法, 需要加锁维护 current weight.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 17:10
+ */
+public class WeightRoundRobinLoadBalancer implements LoadBalancer {
+
+    private static final AtomicIntegerFieldUpdater<WeightRoundRobinLoadBalancer> UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(WeightRoundRobinLoadBalancer.class, "index");
+
+    // 预计算的代价上限: 周期长度 * 服务数
+    private static final long MAX_PRECOMPUTE_COST = 1 << 20;
+
+    private volatile int index = 0;
+    private volatile Schedule schedule;
+
+    @Override
+    public int select(ProviderSnapshot snapshot) {
+        int length = snapshot.size();
+        if (length == 1) {
+            return 0;
+        }
+        if (!snapshot.isWeighted()) {
+            // 等权时就是普通轮询
+            return (UPDATER.getAndIncrement(this) & Integer.MAX_VALUE) % length;
+        }
+        Schedule s = schedule;
+        if (s == null || s.snapshot != snapshot) {
+            schedule = s = new Schedule(snapshot);
+        }
+        int[] sequence = s.sequence;
+        if (sequence != null) {
+            int i = UPDATER.getAndIncrement(this) & Integer.MAX_VALUE;
+            return sequence[i % sequence.length];
+        }
+        return s.next();
+    }
+
+    static final class Schedule {
+
+        final ProviderSnapshot snapshot;
+        final int[] sequence;               // 一个周期的选择序列, 周期过长时为 null
+        private final int[] weights;
+        private final long totalWeight;
+        private final long[] current;       // sequence 为 null 时使用
+
+        Schedule(ProviderSnapshot snapshot) {
+            this.snapshot = snapshot;
+            int n = snapshot.size();
+            this.weights = new int[n];
+            this.totalWeight = snapshot.totalWeight();
+            int gcd = 0;
+            for (int i = 0; i < n; i++) {
+                weights[i] = snapshot.weight(i);
+                gcd = gcd(gcd, weights[i]);
+            }
+            long cycle = totalWeight / gcd;
+            current = new long[n];
+            if (cycle * n <= MAX_PRECOMPUTE_COST) {
+                int[] seq = new int[(int) cycle];
+                for (int i = 0; i < seq.length; i++) {
+                    seq[i] = next();
+                }
+                // 一个完整周期后 current 回到全 0, 与预计算前的状态一致
+                sequence = seq;
+            } else {
+                sequence = null;
+            }
+        }
+
+        synchronized int next() {
+            int best = -1;
+            long bestWeight = Long.MIN_VALUE;
+            for (int i = 0; i < current.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > bestWeight) {
+                    bestWeight = current[i];
+                    best = i;
+                }
+            }
+            current[best] -= totalWeight;
+            return best;
+        }
+
+        private static int gcd(int a, int b) {
+            while (b != 0) {
+                int t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.exec;
+
+import org.neptune.transport.Status;
+
+/**
+ * org.neptune.rpc.exec - RpcException
+ * 携带协议状态码的调用异常, 例如调用超时 {@link Status#CLIENT_TIMEOUT}
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 14:40
+ */
+public class RpcException extends RuntimeException {
+
+    private final Status status;
+
+    public RpcException(Status status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public RpcException(Status status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "[" + status + "]: " + getMessage();
+    }
+}
@@ -24,6 +24,9 @@ import org.neptune.rpc.ResponseBody;
 import org.neptune.rpc.factories.SerializerFactory;
 import org.neptune.rpc.seialize.Serializer;
 import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.Status;
+import org.neptune.transport.connection.NettyConnection;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import org.neptune.transport.processor.ConsumerProcessor;
 
@@ -54,9 +57,34 @@ public class DefaultConsumerProcessor implements ConsumerProcessor {
     @Override
     public void handlerResponse(Channel channel, ResponsePayload responsePayload) throws Exception {
         Serializer serializer = SerializerFactory.getSerializer(Serializer.SerializerType.parse(responsePayload.getSerialTypeCode()));
-        ResponseBody responseBody = serializer.readObject(responsePayload.getBytes(), 0 ,responsePayload.getBytes().length , ResponseBody.class);
-        Response response = new Response(responsePayload.getXid(), responseBody);
-        DefaultInvokeFuture.received(channel, response);
+        ResponseBody responseBody;
+        try {
+            ByteBuf buf = responsePayload.getByteBuf();
+            if (buf != null) {
+                // 直接从入站 buffer 反序列化, 不经过 byte[]
+                responseBody = serializer.readObject(buf.nioBuffer(), ResponseBody.class);
+            } else {
+                byte[] bytes = responsePayload.getBytes();
+                responseBody = serializer.readObject(bytes, 0, bytes.length, ResponseBody.class);
+            }
+        } finally {
+            responsePayload.release();
+        }
+        Response response = Response.newInstance(responsePayload.getXid(), responseBody);
+        Status status = Status.parse(responsePayload.getStatus());
+        response.setStatus(status == null ? Status.SERVER_ERROR : status);
+        responsePayload.recycle();
+        NettyConnection connection = NettyConnection.of(channel);
+        if (connection == null) {
+            response.recycle();
+            log.warn("response from a channel without connection: {}", channel);
+            return;
+        }
+        try {
+            DefaultInvokeFuture.received(connection, response);
+        } finally {
+            response.recycle();
+        }
     }
 
 }
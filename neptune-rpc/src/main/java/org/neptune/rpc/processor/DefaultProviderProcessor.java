@@ -15,21 +15,38 @@
  */
 package org.neptune.rpc.processor;
 
-import com.alibaba.fastjson2.JSON;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelFutureListener;
 import lombok.extern.slf4j.Slf4j;
+import org.neptune.registry.ServiceMeta;
 import org.neptune.rpc.RequestBody;
 import org.neptune.rpc.ResponseBody;
 import org.neptune.rpc.factories.SerializerFactory;
 import org.neptune.rpc.seialize.Serializer;
+import org.neptune.rpc.seialize.io.NettyOutputBuf;
+import org.neptune.rpc.server.executor.ServiceExecutor;
+import org.neptune.rpc.server.executor.ServiceExecutors;
+import org.neptune.rpc.server.provider.ProviderMethod;
+import org.neptune.rpc.server.provider.ProviderRegistry;
 import org.neptune.transport.RequestPayload;
 import org.neptune.transport.ResponsePayload;
 import org.neptune.transport.Status;
+import org.neptune.transport.connection.OutboundQueue;
 import org.neptune.transport.processor.ProviderProcessor;
+import org.neptune.transport.protocol.ProtocolEncoder;
+
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * org.neptune.rpc.core - DefaultProviderProcessor
+ * 反序列化请求体, 从 {@link ProviderRegistry} 找到目标服务方法调用, 再把结果写回调用方;
+ * 非正常结果通过协议头的 status 告知调用方, 此时响应体中的 result 为错误信息
+ * <p>
+ * 线程模型:
+ * 1. 默认反序列化、业务调用、序列化都在业务线程池中执行, IO 线程只负责解帧, 慢方法不会拖住同一 event loop 上的其他连接;
+ * 2. 业务线程池是有界的, 队列满时直接以 {@link Status#SERVER_BUSY} 拒绝, 让调用方尽快失败/重试其他节点;
+ * 3. 注册了 {@link org.neptune.rpc.annotation.NonBlocking} 方法或配置了服务级别的线程池隔离({@link ServiceExecutors})时,
+ * 需要先在 IO 线程上反序列化才能知道目标方法: 非阻塞方法直接在 IO 线程上执行, 其余方法交给对应服务的业务线程池.
  *
  * @author tony-is-coding
  * @date 2021/12/24 16:07
@@ -37,28 +54,155 @@ import org.neptune.transport.processor.ProviderProcessor;
 @Slf4j
 public class DefaultProviderProcessor implements ProviderProcessor {
 
+    private final ProviderRegistry providerRegistry;
+    private final ServiceExecutors executors;
+
+    public DefaultProviderProcessor(ProviderRegistry providerRegistry) {
+        this(providerRegistry, new ServiceExecutors());
+    }
+
+    public DefaultProviderProcessor(ProviderRegistry providerRegistry, ServiceExecutors executors) {
+        this.providerRegistry = providerRegistry;
+        this.executors = executors;
+    }
+
     @Override
     public void shutdownGracefully() {
+        executors.shutdown();
     }
 
     @Override
     public void handleRequest(Channel channel, RequestPayload request) throws Exception {
-        Serializer serializer = SerializerFactory.getSerializer(Serializer.SerializerType.parse(request.getSerialTypeCode()));
-        // 直接pong 回去
-        ResponseBody responseBody = new ResponseBody();
-        responseBody.setResult("this is an result from remote sever!! good day");
-
-        ResponsePayload payload = new ResponsePayload(request.getXid());
-        payload.setStatus(Status.OK.value());
-        payload.setSerialTypeCode(request.getSerialTypeCode());
-        payload.setBytes(serializer.writeObject(responseBody));
-
-        channel.writeAndFlush(payload).addListener(
-                (ChannelFutureListener) cf -> {});
+        if (!providerRegistry.hasNonBlocking() && !executors.isIsolated()) {
+            // 反序列化也交给业务线程
+            execute(executors.defaultExecutor(), channel, request, () -> process(channel, request));
+            return;
+        }
+        Serializer serializer = serializerOf(request);
+        RequestBody requestBody = readBody(serializer, request);
+        ProviderMethod method = lookup(requestBody);
+        if (method != null && method.isNonBlocking()) {
+            invoke(channel, serializer, request, requestBody, method);
+            return;
+        }
+        ServiceExecutor executor = executors.select(requestBody.getMetadata(), requestBody.getMethodName());
+        execute(executor, channel, request, () -> {
+            try {
+                invoke(channel, serializer, request, requestBody, method);
+            } catch (Throwable t) {
+                handleException(channel, request, Status.SERVER_ERROR, t);
+            }
+        });
+    }
+
+    private void execute(ServiceExecutor executor, Channel channel, RequestPayload request, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            handleException(channel, request, Status.SERVER_BUSY, e);
+        }
+    }
+
+    // 在业务线程中执行, 异常不会再经过 AcceptorHandler, 需要自己处理
+    private void process(Channel channel, RequestPayload request) {
+        try {
+            Serializer serializer = serializerOf(request);
+            RequestBody requestBody = readBody(serializer, request);
+            invoke(channel, serializer, request, requestBody, lookup(requestBody));
+        } catch (Throwable t) {
+            handleException(channel, request, Status.SERVER_ERROR, t);
+        }
+    }
+
+    private static Serializer serializerOf(RequestPayload request) {
+        return SerializerFactory.getSerializer(Serializer.SerializerType.parse(request.getSerialTypeCode()));
+    }
+
+    private static RequestBody readBody(Serializer serializer, RequestPayload request) {
+        try {
+            ByteBuf buf = request.getByteBuf();
+            if (buf != null) {
+                // 直接从入站 buffer 反序列化, 不经过 byte[]
+                return serializer.readObject(buf.nioBuffer(), RequestBody.class);
+            }
+            byte[] bytes = request.getBytes();
+            return serializer.readObject(bytes, 0, bytes.length, RequestBody.class);
+        } finally {
+            request.release();
+        }
+    }
+
+    private ProviderMethod lookup(RequestBody requestBody) {
+        return providerRegistry.lookup(requestBody.getMetadata(), requestBody.getMethodName(), requestBody.getArgs());
+    }
+
+    private void invoke(Channel channel, Serializer serializer, RequestPayload request,
+                        RequestBody requestBody, ProviderMethod method) {
+        Status status;
+        Object result;
+        if (method == null) {
+            status = Status.SERVICE_NOT_FOUND;
+            ServiceMeta meta = requestBody.getMetadata();
+            result = "service not found: " + (meta == null ? null : meta.toFlatString()) + "#" + requestBody.getMethodName();
+        } else {
+            try {
+                result = method.invoke(requestBody.getArgs());
+                status = Status.OK;
+            } catch (Throwable t) {
+                // 方法签名中声明的异常视为预期内的业务异常
+                status = method.isDeclaredException(t) ? Status.SERVICE_EXPECTED_ERROR : Status.SERVICE_UNEXPECTED_ERROR;
+                result = t.toString();
+                if (status == Status.SERVICE_UNEXPECTED_ERROR) {
+                    log.warn("invoke {} failed", method, t);
+                }
+            }
+        }
+
+        writeResponse(channel, serializer, request.getXid(), status, result);
+
+        // 正常处理完毕才回收, 抛出异常时交给 handleException 处理后回收
+        request.recycle();
     }
 
     @Override
     public void handleException(Channel channel, RequestPayload request, Status status, Throwable cause) {
-        log.info("错误发生");
+        if (status == Status.SERVER_BUSY) {
+            // 过载时每个请求都会走到这里, 不打印堆栈
+            log.warn("reject request {} from {}: {}", request.getXid(), channel.remoteAddress(), status);
+        } else {
+            log.warn("handle request {} failed, status: {}", request.getXid(), status, cause);
+        }
+        request.release();
+        try {
+            String message = status == Status.SERVER_BUSY ? cause.getMessage() : cause.toString();
+            writeResponse(channel, serializerOf(request), request.getXid(), status, message);
+        } catch (Throwable t) {
+            log.warn("write error response {} failed", request.getXid(), t);
+        } finally {
+            request.recycle();
+        }
+    }
+
+    private static void writeResponse(Channel channel, Serializer serializer, long xid, Status status, Object result) {
+        ResponseBody responseBody = ResponseBody.newInstance();
+        responseBody.setResult(result);
+
+        // 直接序列化进出站帧, 省去 byte[] 中转
+        ByteBuf frame = ProtocolEncoder.allocateFrame(channel.alloc());
+        try {
+            serializer.writeObject(new NettyOutputBuf(frame), responseBody);
+        } catch (Throwable t) {
+            frame.release();
+            throw t;
+        } finally {
+            responseBody.recycle();
+        }
+        ResponsePayload payload = ResponsePayload.newInstance(xid);
+        payload.setStatus(status.value());
+        payload.setSerialTypeCode(serializer.typeCode());
+        payload.setByteBuf(frame);
+
+        // 进入出站队列, 由 event loop 批量写出并合并 flush
+        OutboundQueue.write(channel, payload);
     }
 }
@@ -17,7 +17,11 @@ package org.neptune.rpc.seialize;
 
 import org.neptune.rpc.exec.DeserializerException;
 import org.neptune.rpc.exec.SerializerException;
+import org.neptune.rpc.seialize.io.OutputBuf;
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.JavaSerializer;
@@ -26,6 +30,7 @@ import org.objenesis.strategy.StdInstantiatorStrategy;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -58,6 +63,13 @@ public class KryoSerializer extends AbstractSerializer {
     };
 
 
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    // 线程内复用, 只是替换其中的 ByteBuffer 引用, 不会产生新的 byte[]
+    private static final ThreadLocal<ByteBufferInput> inputThreadLocal = ThreadLocal.withInitial(ByteBufferInput::new);
+
+    private static final ThreadLocal<OutputBufOutput> outputThreadLocal = ThreadLocal.withInitial(OutputBufOutput::new);
+
     @Override
     public byte typeCode() {
         return (byte) 0x00;
@@ -78,6 +90,22 @@ public class KryoSerializer extends AbstractSerializer {
         }
     }
 
+    @Override
+    public OutputBuf writeObject(OutputBuf outputBuf, Object obj) {
+        OutputBufOutput output = outputThreadLocal.get();
+        try {
+            output.attach(outputBuf);
+            Kryo kryo = kryoThreadLocal.get();
+            kryo.writeObject(output, obj);
+            output.commit();
+            return outputBuf;
+        } catch (KryoException e) {
+            throw new SerializerException("Failed to serialize a " + obj.getClass().toString() + " object; cause by: " + e.getMessage());
+        } finally {
+            output.detach();
+        }
+    }
+
     @Override
     public <T> T readObject(byte[] bytes, int offset, int length, Class<T> clazz) {
         try (
@@ -91,4 +119,59 @@ public class KryoSerializer extends AbstractSerializer {
         }
 
     }
-}
\ No newline at end of file
+
+    @Override
+    public <T> T readObject(ByteBuffer from, Class<T> clazz) {
+        ByteBufferInput input = inputThreadLocal.get();
+        try {
+            input.setBuffer(from);
+            Kryo kryo = kryoThreadLocal.get();
+            return kryo.readObject(input, clazz);
+        } catch (KryoException e) {
+            throw new DeserializerException("Failed to deserialize a " + clazz.toString() + " object; cause by: " + e.getMessage());
+        } finally {
+            input.setBuffer(EMPTY_BUFFER); // 不持有外部 buffer 的引用, 防止 buffer 释放后被误用
+        }
+    }
+
+    /**
+     * 直接写入 OutputBuf 的 nio 视图; 空间不足时向 OutputBuf 申请扩容 (比如 ByteBuf#ensureWritable),
+     * 而不是像 ByteBufferOutput 默认的那样另起一块 ByteBuffer 再拷贝过去
+     */
+    private static final class OutputBufOutput extends ByteBufferOutput {
+
+        private static final int MIN_WRITABLE_BYTES = 256;
+
+        private OutputBuf outputBuf;
+
+        OutputBufOutput() {
+            super(EMPTY_BUFFER, -1);
+        }
+
+        void attach(OutputBuf outputBuf) {
+            this.outputBuf = outputBuf;
+            setBuffer(outputBuf.nioByteBuffer(MIN_WRITABLE_BYTES), -1);
+        }
+
+        // 提交当前视图内已经写入的数据
+        void commit() {
+            outputBuf.advance(position);
+            position = 0;
+        }
+
+        void detach() {
+            outputBuf = null;
+            setBuffer(EMPTY_BUFFER, -1);
+        }
+
+        @Override
+        protected boolean require(int required) {
+            if (capacity - position >= required) {
+                return false;
+            }
+            commit();
+            setBuffer(outputBuf.nioByteBuffer(Math.max(required, MIN_WRITABLE_BYTES)), -1);
+            return true;
+        }
+    }
+}
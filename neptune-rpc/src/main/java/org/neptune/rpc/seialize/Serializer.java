@@ -17,6 +17,9 @@ package org.neptune.rpc.seialize;
 
 import org.neptune.rpc.exec.DeserializerException;
 import org.neptune.rpc.exec.SerializerException;
+import org.neptune.rpc.seialize.io.OutputBuf;
+
+import java.nio.ByteBuffer;
 
 /**
  * org.neptune.rpc.seialize - Serializer
@@ -29,6 +32,7 @@ public interface Serializer {
         TODO: 目前还是个很简单的 Serializer; 需要后续进行优化, 目前有以下优化方向
             1. buffer复用, 可以优化具体序列化器底层的序列化buffer,前提只要保证不线程序列化隔离即可
             2. 数据从 业务线程 到 IO 线程可以利用上netty的 ByteBuf 优化减少拷贝开销
+               (已支持: 通过 OutputBuf 直接写入 ByteBuf, 通过 ByteBuffer 直接读取)
      */
 
     byte typeCode();
@@ -38,11 +42,21 @@ public interface Serializer {
      */
     byte[] writeObject(Object from) throws SerializerException;
 
+    /**
+     * 序列化, 直接写入 output 承载的内存 (比如出站帧的 ByteBuf), 不产生中间的 byte[]
+     */
+    OutputBuf writeObject(OutputBuf output, Object from) throws SerializerException;
+
     /**
      * 反序列化
      */
     <T> T readObject(byte[] to, int offset, int length, Class<T> clazz) throws DeserializerException;
 
+    /**
+     * 反序列化, 直接从 (可能是堆外的) ByteBuffer 中读取, 省去 byte[] 拷贝
+     */
+    <T> T readObject(ByteBuffer from, Class<T> clazz) throws DeserializerException;
+
     enum SerializerType {
         JAVA_NATIVE(1),
         KRYO(2),
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.seialize.io;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * org.neptune.rpc.seialize.io - NettyOutputBuf
+ * 基于 netty ByteBuf 的输出, 写入的数据直接落在 ByteBuf 上, 写索引随之推进
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 10:20
+ */
+public final class NettyOutputBuf implements OutputBuf {
+
+    private final ByteBuf byteBuf;
+    private final int startIndex;
+
+    public NettyOutputBuf(ByteBuf byteBuf) {
+        this.byteBuf = byteBuf;
+        this.startIndex = byteBuf.writerIndex();
+    }
+
+    @Override
+    public ByteBuffer nioByteBuffer(int minWritableBytes) {
+        byteBuf.ensureWritable(minWritableBytes);
+        // 视图只覆盖可写区域, 不会影响 ByteBuf 的读写索引
+        return byteBuf.nioBuffer(byteBuf.writerIndex(), byteBuf.writableBytes());
+    }
+
+    @Override
+    public void advance(int writtenBytes) {
+        byteBuf.writerIndex(byteBuf.writerIndex() + writtenBytes);
+    }
+
+    @Override
+    public int size() {
+        return byteBuf.writerIndex() - startIndex;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return byteBuf.isDirect();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.seialize.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * org.neptune.rpc.seialize.io - OutputBuf
+ * 序列化输出目标的抽象, 目前的实现是 netty 的 ByteBuf (堆内/堆外均可),
+ * 序列化器直接写入这块内存, 省去 java对象 -> byte[] -> 堆外内存 中间的 byte[] 环节
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 10:12
+ */
+public interface OutputBuf {
+
+    /**
+     * 返回一个至少有 minWritableBytes 可写空间的 nio 视图, 视图的 position 0 对应当前的写索引;
+     * 通过视图写入的数据需要调用 {@link #advance(int)} 提交
+     */
+    ByteBuffer nioByteBuffer(int minWritableBytes);
+
+    /**
+     * 提交通过 nio 视图写入的字节数, 推进写索引
+     */
+    void advance(int writtenBytes);
+
+    /**
+     * 已写入的字节数
+     */
+    int size();
+
+    /**
+     * 是否是堆外内存
+     */
+    boolean isDirect();
+}
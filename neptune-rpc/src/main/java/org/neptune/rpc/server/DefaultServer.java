@@ -19,10 +19,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.neptune.registry.RegistryMeta;
 import org.neptune.registry.ServiceMeta;
 import org.neptune.registry.ServicePublisher;
+import org.neptune.rpc.annotation.RpcServiceImpl;
 import org.neptune.rpc.processor.DefaultProviderProcessor;
+import org.neptune.rpc.server.executor.ServiceExecutors;
+import org.neptune.rpc.server.provider.ProviderRegistry;
 import org.neptune.transport.acceptor.Acceptor;
+import org.neptune.transport.SocketChannelFactoryProvider;
 import org.neptune.transport.acceptor.NettyAcceptor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 
 /**
  * org.neptune.rpc.core - DefaultServer
@@ -34,8 +42,12 @@ import org.neptune.transport.acceptor.NettyAcceptor;
 public class DefaultServer implements Server {
 
     private Acceptor acceptor;
+    private final ProviderRegistry providerRegistry = new ProviderRegistry();
     private ServicePublisher servicePublisher = null;
     int port;
+    private SocketChannelFactoryProvider.SocketType socketType;
+    private int listeners;
+    private ServiceExecutors serviceExecutors;
     private boolean running = false;
 
     private String group;
@@ -53,8 +65,12 @@ public class DefaultServer implements Server {
     public void start() throws InterruptedException {
         try{
             running = true;
-            doPublishServer();
+            // 先完成端口监听再发布服务, 避免调用方拿到地址时还连不上
             acceptor.startAsync();
+            doPublishServer();
+            acceptor.sync();
+        }catch (InterruptedException e){
+            throw e;
         }catch (Exception e){
             shutdownGracefully();
         }
@@ -95,12 +111,34 @@ public class DefaultServer implements Server {
 
     @Override
     public void addProvider(Class<?> providerClass) {
-
+        if (!providerClass.isAnnotationPresent(RpcServiceImpl.class)) {
+            throw new IllegalArgumentException("@RpcServiceImpl annotation needed: " + providerClass.getName());
+        }
+        Object provider;
+        try {
+            provider = providerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("can not instantiate provider " + providerClass.getName(), e);
+        }
+        providerRegistry.register(provider);
     }
 
     @Override
     public void addProviders(Class<?>... providerClass) {
+        for (Class<?> cls : providerClass) {
+            addProvider(cls);
+        }
+    }
 
+    public ProviderRegistry providerRegistry() {
+        return providerRegistry;
+    }
+
+    /**
+     * 业务线程池, 可以用来观测各个服务线程池的 队列深度/活跃线程数/拒绝次数
+     */
+    public ServiceExecutors serviceExecutors() {
+        return serviceExecutors;
     }
 
     public static DefaultServiceBuilder builder(){
@@ -110,6 +148,11 @@ public class DefaultServer implements Server {
 
     public static class DefaultServiceBuilder {
         private final DefaultServer innerServer;
+        private int executorThreads;
+        private int executorQueueSize;
+        private boolean virtualThreads;
+        private int virtualMaxConcurrency;
+        private final List<Consumer<ServiceExecutors>> isolations = new ArrayList<>();
 
         public DefaultServiceBuilder() {
             innerServer = new DefaultServer();
@@ -143,10 +186,83 @@ public class DefaultServer implements Server {
             return this;
         }
 
+        /**
+         * 传输模式, 当前平台不支持时退化为 JAVA_NIO; 不设置则读取 -Dneptune.transport.socketType
+         */
+        public DefaultServer.DefaultServiceBuilder socketType(SocketChannelFactoryProvider.SocketType socketType) {
+            innerServer.socketType = socketType;
+            return this;
+        }
+
+        /**
+         * 同一端口上的监听 socket 数量(SO_REUSEPORT), 只对 epoll/io_uring 生效; 不设置则读取 -Dneptune.server.bossThreadNum
+         */
+        public DefaultServer.DefaultServiceBuilder listeners(int listeners) {
+            innerServer.listeners = listeners;
+            return this;
+        }
+
+        /**
+         * 业务线程数; 不设置则读取 -Dneptune.server.executor.threads
+         */
+        public DefaultServer.DefaultServiceBuilder executorThreads(int executorThreads) {
+            this.executorThreads = executorThreads;
+            return this;
+        }
+
+        /**
+         * 业务线程池的队列长度, 队满时以 SERVER_BUSY 拒绝; 不设置则读取 -Dneptune.server.executor.queueSize
+         */
+        public DefaultServer.DefaultServiceBuilder executorQueueSize(int executorQueueSize) {
+            this.executorQueueSize = executorQueueSize;
+            return this;
+        }
+
+        /**
+         * 默认业务线程池改为每个请求一个虚拟线程(Java 21+), 当前 JDK 不支持时退化为平台线程池;
+         * 不设置则读取 -Dneptune.server.executor.virtual
+         *
+         * @param maxConcurrency 最大并发数, <= 0 时读取 -Dneptune.server.executor.virtual.maxConcurrency
+         */
+        public DefaultServer.DefaultServiceBuilder virtualThreads(int maxConcurrency) {
+            this.virtualThreads = true;
+            this.virtualMaxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * 为一个服务分配独立的虚拟线程执行器, 当前 JDK 不支持时退化为平台线程池
+         */
+        public DefaultServer.DefaultServiceBuilder virtualServiceExecutor(ServiceMeta serviceMeta, int maxConcurrency) {
+            isolations.add(executors -> executors.isolateVirtual(serviceMeta, maxConcurrency));
+            return this;
+        }
+
+        /**
+         * 为一个服务分配独立的业务线程池, 与其他服务隔离; threads/queueSize <= 0 时使用默认值
+         */
+        public DefaultServer.DefaultServiceBuilder serviceExecutor(ServiceMeta serviceMeta, int threads, int queueSize) {
+            isolations.add(executors -> executors.isolate(serviceMeta, threads, queueSize));
+            return this;
+        }
+
+        /**
+         * 为一个服务的某个方法分配独立的业务线程池, 优先于服务级别的线程池
+         */
+        public DefaultServer.DefaultServiceBuilder methodExecutor(ServiceMeta serviceMeta, String methodName, int threads, int queueSize) {
+            isolations.add(executors -> executors.isolate(serviceMeta, methodName, threads, queueSize));
+            return this;
+        }
 
         public DefaultServer build() {
-            innerServer.acceptor = new NettyAcceptor(innerServer.port);
-            innerServer.acceptor.withProcessor(new DefaultProviderProcessor());
+            innerServer.acceptor = new NettyAcceptor(innerServer.port, innerServer.socketType, innerServer.listeners);
+            innerServer.serviceExecutors = virtualThreads
+                    ? ServiceExecutors.virtual(virtualMaxConcurrency)
+                    : new ServiceExecutors(executorThreads, executorQueueSize);
+            for (Consumer<ServiceExecutors> isolation : isolations) {
+                isolation.accept(innerServer.serviceExecutors);
+            }
+            innerServer.acceptor.withProcessor(new DefaultProviderProcessor(innerServer.providerRegistry, innerServer.serviceExecutors));
             return innerServer;
         }
     }
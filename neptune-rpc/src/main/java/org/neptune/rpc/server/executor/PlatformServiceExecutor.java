@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.executor;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * org.neptune.rpc.server.executor - PlatformServiceExecutor
+ * 固定线程数 + 有界队列的平台线程池
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 16:45
+ */
+final class PlatformServiceExecutor extends ServiceExecutor {
+
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected = new LongAdder();
+
+    PlatformServiceExecutor(String name, int threads, int queueSize) {
+        super(name);
+        this.queueCapacity = queueSize;
+        RejectedExecutionHandler abort = (r, executor) -> {
+            rejected.increment();
+            throw REJECTED;
+        };
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new DefaultThreadFactory("neptune-provider-" + name, true),
+                abort);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pool.execute(task);
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+
+    @Override
+    public int activeCount() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public int queueSize() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long completedCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @Override
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
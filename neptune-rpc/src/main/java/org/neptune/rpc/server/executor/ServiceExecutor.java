@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * org.neptune.rpc.server.executor - ServiceExecutor
+ * 一个独立的业务执行器, 有两种模式:
+ * <p>
+ * 1. {@link #platform(String, int, int)}: 固定线程数 + 有界队列, 队满直接拒绝;
+ * 2. {@link #virtual(String, int)}: 每个请求一个虚拟线程(Java 21+), 以最大并发数为上限, 超出直接拒绝,
+ * 适合 JDBC/下游 RPC 等阻塞型的服务实现, 不需要为了阻塞而配置很大的线程池.
+ * <p>
+ * 都会统计 活跃数/队列深度/完成数/拒绝次数
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 16:20
+ */
+public abstract class ServiceExecutor implements Executor {
+
+    // 过载时每个请求都会被拒绝, 复用同一个不带堆栈的异常
+    static final RejectedExecutionException REJECTED = new RejectedExecutionException("server busy, request rejected") {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private final String name;
+
+    ServiceExecutor(String name) {
+        this.name = name;
+    }
+
+    public static ServiceExecutor platform(String name, int threads, int queueSize) {
+        return new PlatformServiceExecutor(name, threads, queueSize);
+    }
+
+    /**
+     * @throws UnsupportedOperationException 当前 JDK 不支持虚拟线程
+     */
+    public static ServiceExecutor virtual(String name, int maxConcurrency) {
+        return new VirtualServiceExecutor(name, maxConcurrency);
+    }
+
+    /**
+     * @throws RejectedExecutionException 队列已满/超过最大并发数
+     */
+    @Override
+    public abstract void execute(Runnable task);
+
+    public String name() {
+        return name;
+    }
+
+    public abstract boolean isVirtual();
+
+    public abstract int activeCount();
+
+    public abstract int queueSize();
+
+    public abstract int queueCapacity();
+
+    public abstract long completedCount();
+
+    public abstract long rejectedCount();
+
+    public abstract void shutdown();
+
+    @Override
+    public String toString() {
+        return name + "[" + (isVirtual() ? "virtual" : "platform")
+                + ", active=" + activeCount()
+                + ", queue=" + queueSize() + "/" + queueCapacity()
+                + ", completed=" + completedCount()
+                + ", rejected=" + rejectedCount() + "]";
+    }
+}
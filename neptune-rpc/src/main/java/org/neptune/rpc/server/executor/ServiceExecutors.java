@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.neptune.common.util.SysPropertyUtil;
+import org.neptune.common.util.VirtualThreads;
+import org.neptune.registry.ServiceMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * org.neptune.rpc.server.executor - ServiceExecutors
+ * 服务级别的线程池隔离: 按 方法 -> 服务 -> 默认 的顺序为请求选择业务线程池,
+ * 某个服务变慢/打满时只会拒绝它自己的请求, 不会拖垮同一个 server 上的其他服务.
+ * <p>
+ * 每个线程池可以是平台线程池, 也可以是虚拟线程(Java 21+, 运行时探测, 不支持时退化为平台线程池),
+ * 默认线程池的模式由 -Dneptune.server.executor.virtual 决定.
+ * <p>
+ * 只在 server 启动前配置, 之后只读
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 16:20
+ */
+@Slf4j
+public final class ServiceExecutors {
+
+    private static final int DEFAULT_THREADS = SysPropertyUtil.getInt("neptune.server.executor.threads",
+            Math.max(8, Runtime.getRuntime().availableProcessors() << 1));
+    private static final int DEFAULT_QUEUE_SIZE = SysPropertyUtil.getInt("neptune.server.executor.queueSize", 1024);
+    private static final boolean DEFAULT_VIRTUAL = SysPropertyUtil.getBoolean("neptune.server.executor.virtual", false);
+    private static final int DEFAULT_MAX_CONCURRENCY = SysPropertyUtil.getInt("neptune.server.executor.virtual.maxConcurrency", 10000);
+
+    private final ServiceExecutor defaultExecutor;
+    private final Map<ServiceMeta, ServiceExecutor> serviceExecutors = new HashMap<>();
+    private final Map<ServiceMeta, Map<String, ServiceExecutor>> methodExecutors = new HashMap<>();
+
+    public ServiceExecutors() {
+        this(0, 0);
+    }
+
+    /**
+     * @param threads   默认线程池的线程数, <= 0 时使用 -Dneptune.server.executor.threads
+     * @param queueSize 默认线程池的队列长度, <= 0 时使用 -Dneptune.server.executor.queueSize
+     */
+    public ServiceExecutors(int threads, int queueSize) {
+        this(DEFAULT_VIRTUAL
+                ? virtualOrPlatform("default", DEFAULT_MAX_CONCURRENCY)
+                : ServiceExecutor.platform("default", threadsOrDefault(threads), queueSizeOrDefault(queueSize)));
+    }
+
+    public ServiceExecutors(ServiceExecutor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    /**
+     * 默认线程池使用虚拟线程, 当前 JDK 不支持时退化为平台线程池
+     *
+     * @param maxConcurrency 最大并发数, <= 0 时使用 -Dneptune.server.executor.virtual.maxConcurrency
+     */
+    public static ServiceExecutors virtual(int maxConcurrency) {
+        return new ServiceExecutors(virtualOrPlatform("default", maxConcurrency));
+    }
+
+    /**
+     * 为一个服务单独分配线程池
+     */
+    public ServiceExecutors isolate(ServiceMeta serviceMeta, int threads, int queueSize) {
+        serviceExecutors.put(serviceMeta, ServiceExecutor.platform(serviceMeta.toFlatString(),
+                threadsOrDefault(threads), queueSizeOrDefault(queueSize)));
+        return this;
+    }
+
+    /**
+     * 为一个服务的某个方法单独分配线程池, 优先于服务级别的线程池
+     */
+    public ServiceExecutors isolate(ServiceMeta serviceMeta, String methodName, int threads, int queueSize) {
+        methodExecutors.computeIfAbsent(serviceMeta, k -> new HashMap<>())
+                .put(methodName, ServiceExecutor.platform(serviceMeta.toFlatString() + "#" + methodName,
+                        threadsOrDefault(threads), queueSizeOrDefault(queueSize)));
+        return this;
+    }
+
+    /**
+     * 为一个服务单独分配虚拟线程执行器, 当前 JDK 不支持时退化为平台线程池
+     */
+    public ServiceExecutors isolateVirtual(ServiceMeta serviceMeta, int maxConcurrency) {
+        serviceExecutors.put(serviceMeta, virtualOrPlatform(serviceMeta.toFlatString(), maxConcurrency));
+        return this;
+    }
+
+    /**
+     * 是否配置了隔离的线程池, 没有的话不需要知道目标服务就可以选出线程池
+     */
+    public boolean isIsolated() {
+        return !serviceExecutors.isEmpty() || !methodExecutors.isEmpty();
+    }
+
+    public ServiceExecutor select(ServiceMeta serviceMeta, String methodName) {
+        if (serviceMeta == null) {
+            return defaultExecutor;
+        }
+        Map<String, ServiceExecutor> methods = methodExecutors.get(serviceMeta);
+        if (methods != null && methodName != null) {
+            ServiceExecutor executor = methods.get(methodName);
+            if (executor != null) {
+                return executor;
+            }
+        }
+        ServiceExecutor executor = serviceExecutors.get(serviceMeta);
+        return executor != null ? executor : defaultExecutor;
+    }
+
+    public ServiceExecutor defaultExecutor() {
+        return defaultExecutor;
+    }
+
+    /**
+     * 所有线程池, 用于观测 队列深度/活跃线程数/拒绝次数
+     */
+    public List<ServiceExecutor> executors() {
+        List<ServiceExecutor> executors = new ArrayList<>();
+        executors.add(defaultExecutor);
+        executors.addAll(serviceExecutors.values());
+        for (Map<String, ServiceExecutor> methods : methodExecutors.values()) {
+            executors.addAll(methods.values());
+        }
+        return Collections.unmodifiableList(executors);
+    }
+
+    public void shutdown() {
+        for (ServiceExecutor executor : executors()) {
+            executor.shutdown();
+        }
+    }
+
+    private static ServiceExecutor virtualOrPlatform(String name, int maxConcurrency) {
+        maxConcurrency = maxConcurrency > 0 ? maxConcurrency : DEFAULT_MAX_CONCURRENCY;
+        if (VirtualThreads.isAvailable()) {
+            return ServiceExecutor.virtual(name, maxConcurrency);
+        }
+        log.warn("virtual thread is not available on java {}, fallback to platform thread pool: {}",
+                System.getProperty("java.version"), name);
+        // 平台线程池没办法开这么多线程, 用队列承接剩余的并发
+        return ServiceExecutor.platform(name, DEFAULT_THREADS, maxConcurrency);
+    }
+
+    private static int threadsOrDefault(int threads) {
+        return threads > 0 ? threads : DEFAULT_THREADS;
+    }
+
+    private static int queueSizeOrDefault(int queueSize) {
+        return queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.executor;
+
+import org.neptune.common.util.VirtualThreads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * org.neptune.rpc.server.executor - VirtualServiceExecutor
+ * 每个请求一个虚拟线程, 没有排队, 用信号量限制最大并发数, 拿不到许可直接拒绝.
+ * <p>
+ * 注意: Java 21 中虚拟线程在 synchronized 块内阻塞会 pin 住载体线程, 服务实现里的阻塞调用尽量使用 j.u.c 的锁
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 16:45
+ */
+final class VirtualServiceExecutor extends ServiceExecutor {
+
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    VirtualServiceExecutor(String name, int maxConcurrency) {
+        super(name);
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("neptune-provider-" + name + "-virtual-");
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw REJECTED;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    completed.increment();
+                    permits.release();
+                }
+            });
+        } catch (Throwable t) {
+            permits.release();
+            rejected.increment();
+            throw REJECTED;
+        }
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return true;
+    }
+
+    @Override
+    public int activeCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public int queueSize() {
+        return 0;
+    }
+
+    @Override
+    public int queueCapacity() {
+        return 0;
+    }
+
+    @Override
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.provider;
+
+/**
+ * org.neptune.rpc.server.provider - MethodInvoker
+ * 服务方法调用器, 用来取代 {@link java.lang.reflect.Method#invoke(Object, Object...)}
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:00
+ */
+public interface MethodInvoker {
+
+    /**
+     * 直接抛出目标方法的原始异常, 不会包装成 InvocationTargetException
+     */
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
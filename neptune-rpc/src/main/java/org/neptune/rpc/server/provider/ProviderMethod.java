@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.provider;
+
+import java.lang.reflect.Method;
+
+/**
+ * org.neptune.rpc.server.provider - ProviderMethod
+ * 一个可被远程调用的服务方法: 服务实例 + 方法 + 调用器
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:10
+ */
+public final class ProviderMethod {
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private final Object provider;
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final MethodInvoker invoker;
+    private final boolean nonBlocking;
+
+    public ProviderMethod(Object provider, Method method, MethodInvoker invoker) {
+        this(provider, method, invoker, false);
+    }
+
+    public ProviderMethod(Object provider, Method method, MethodInvoker invoker, boolean nonBlocking) {
+        this.provider = provider;
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.invoker = invoker;
+        this.nonBlocking = nonBlocking;
+    }
+
+    public Object invoke(Object[] args) throws Throwable {
+        return invoker.invoke(provider, args == null ? EMPTY_ARGS : args);
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    /**
+     * 标记了 {@link org.neptune.rpc.annotation.NonBlocking}, 可以直接在 IO 线程上执行
+     */
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    /**
+     * 参数个数是否匹配
+     */
+    boolean acceptsArity(Object[] args) {
+        return parameterTypes.length == (args == null ? 0 : args.length);
+    }
+
+    /**
+     * 参数个数与运行时类型是否都匹配, 用于重载方法的选择
+     */
+    boolean accepts(Object[] args) {
+        if (!acceptsArity(args)) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            Object arg = args[i];
+            if (arg == null) {
+                if (type.isPrimitive()) {
+                    return false;
+                }
+            } else if (!wrap(type).isInstance(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 目标方法是否在签名中声明了这个异常
+     */
+    public boolean isDeclaredException(Throwable cause) {
+        for (Class<?> type : method.getExceptionTypes()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
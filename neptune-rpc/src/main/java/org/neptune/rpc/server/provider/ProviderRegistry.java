@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.rpc.server.provider;
+
+import lombok.extern.slf4j.Slf4j;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.annotation.NonBlocking;
+import org.neptune.rpc.annotation.RpcService;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * org.neptune.rpc.server.provider - ProviderRegistry
+ * 服务端的服务注册表, 按 {@link ServiceMeta} + 方法名 索引到 {@link ProviderMethod}
+ * <p>
+ * 1. ServiceMeta 取自服务实现类所实现的 {@link RpcService} 接口, 与调用方生成的 ServiceMeta 保持一致;
+ * 2. 注册只发生在启动阶段, 采用写时复制, 查询路径上没有锁;
+ * 3. 同名的重载方法根据参数个数与运行时类型选择;
+ * 4. 记录是否存在 {@link NonBlocking} 方法, 没有的话服务端可以把反序列化也一并交给业务线程.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:10
+ */
+@Slf4j
+public class ProviderRegistry {
+
+    private final ConcurrentHashMap<ServiceMeta, Map<String, ProviderMethod[]>> providers = new ConcurrentHashMap<>();
+
+    private volatile boolean hasNonBlocking;
+
+    /**
+     * 注册一个服务实现, 它实现的所有 {@link RpcService} 接口的方法都会被注册
+     */
+    public synchronized void register(Object provider) {
+        List<Class<?>> interfaces = rpcInterfaces(provider.getClass());
+        if (interfaces.isEmpty()) {
+            throw new IllegalArgumentException(provider.getClass().getName() + " does not implement any @RpcService interface");
+        }
+        for (Class<?> itf : interfaces) {
+            ServiceMeta serviceMeta = parseServiceMeta(itf);
+            Map<String, ProviderMethod[]> methods = new HashMap<>(providers.getOrDefault(serviceMeta, Collections.emptyMap()));
+            for (Method method : itf.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                boolean nonBlocking = isNonBlocking(provider.getClass(), method);
+                hasNonBlocking |= nonBlocking;
+                ProviderMethod providerMethod = new ProviderMethod(provider, method, MethodInvokers.create(method), nonBlocking);
+                ProviderMethod[] overloads = methods.get(method.getName());
+                if (overloads == null) {
+                    overloads = new ProviderMethod[]{providerMethod};
+                } else {
+                    overloads = Arrays.copyOf(overloads, overloads.length + 1);
+                    overloads[overloads.length - 1] = providerMethod;
+                }
+                methods.put(method.getName(), overloads);
+            }
+            providers.put(serviceMeta, methods);
+            log.info("register provider {} as {}", provider.getClass().getName(), serviceMeta.toFlatString());
+        }
+    }
+
+    /**
+     * 没有匹配的服务方法时返回 null
+     */
+    public ProviderMethod lookup(ServiceMeta serviceMeta, String methodName, Object[] args) {
+        if (serviceMeta == null || methodName == null) {
+            return null;
+        }
+        Map<String, ProviderMethod[]> methods = providers.get(serviceMeta);
+        if (methods == null) {
+            return null;
+        }
+        ProviderMethod[] overloads = methods.get(methodName);
+        if (overloads == null) {
+            return null;
+        }
+        if (overloads.length == 1) {
+            return overloads[0].acceptsArity(args) ? overloads[0] : null;
+        }
+        for (ProviderMethod method : overloads) {
+            if (method.accepts(args)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasNonBlocking() {
+        return hasNonBlocking;
+    }
+
+    public Set<ServiceMeta> services() {
+        return Collections.unmodifiableSet(providers.keySet());
+    }
+
+    private static List<Class<?>> rpcInterfaces(Class<?> cls) {
+        List<Class<?>> result = new ArrayList<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+            queue.addAll(Arrays.asList(c.getInterfaces()));
+        }
+        Set<Class<?>> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            Class<?> itf = queue.poll();
+            if (!visited.add(itf)) {
+                continue;
+            }
+            if (itf.isAnnotationPresent(RpcService.class)) {
+                result.add(itf);
+            }
+            queue.addAll(Arrays.asList(itf.getInterfaces()));
+        }
+        return result;
+    }
+
+    private static boolean isNonBlocking(Class<?> providerClass, Method method) {
+        if (method.isAnnotationPresent(NonBlocking.class)) {
+            return true;
+        }
+        try {
+            return providerClass.getMethod(method.getName(), method.getParameterTypes()).isAnnotationPresent(NonBlocking.class);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // 与调用方 DefaultClient#parseServiceMeta 的规则保持一致
+    private static ServiceMeta parseServiceMeta(Class<?> interfaceClass) {
+        RpcService annotation = interfaceClass.getAnnotation(RpcService.class);
+        return new ServiceMeta(annotation.name(), annotation.version(), annotation.group());
+    }
+}
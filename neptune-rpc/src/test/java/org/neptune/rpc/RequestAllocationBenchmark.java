@@ -0,0 +1,91 @@
+package org.neptune.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.seialize.KryoSerializer;
+import org.neptune.rpc.seialize.Serializer;
+import org.neptune.rpc.seialize.io.NettyOutputBuf;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.protocol.ProtocolEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.rpc - RequestAllocationBenchmark
+ * 模拟调用方一次请求的出站路径(构造请求 -> 序列化进帧 -> encoder 交出帧), 对比池化与非池化的分配速率,
+ * 使用 -prof gc 观察 gc.alloc.rate.norm
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 12:00
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestAllocationBenchmark {
+
+    private final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+    private final Serializer serializer = new KryoSerializer();
+    private final ServiceMeta meta = new ServiceMeta("benchmark-service", "1.0.0", "default");
+    private final Object[] args = new Object[]{1, "hello"};
+    private long invokeId;
+
+    @Benchmark
+    public int unpooled() {
+        RequestBody body = new RequestBody(meta);
+        body.setMethodName("echo");
+        body.setArgs(args);
+        Request request = new Request(++invokeId);
+        request.setBody(body);
+
+        RequestPayload payload = new RequestPayload(request.getInvokeId());
+        return send(payload, request);
+    }
+
+    @Benchmark
+    public int pooled() {
+        RequestBody body = RequestBody.newInstance(meta);
+        body.setMethodName("echo");
+        body.setArgs(args);
+        Request request = Request.newInstance(++invokeId);
+        request.setBody(body);
+
+        RequestPayload payload = RequestPayload.newInstance(request.getInvokeId());
+        int size = send(payload, request);
+        request.recycle();
+        return size;
+    }
+
+    private int send(RequestPayload payload, Request request) {
+        ByteBuf frame = ProtocolEncoder.allocateFrame(alloc);
+        serializer.writeObject(new NettyOutputBuf(frame), request.getBody());
+        payload.setSerialTypeCode(serializer.typeCode());
+        payload.setByteBuf(frame);
+
+        // 等同于 encoder 交出帧之后回收 payload, 帧写出后释放
+        ByteBuf out = payload.detachByteBuf();
+        payload.recycle();
+        int size = out.readableBytes();
+        out.release();
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RequestAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
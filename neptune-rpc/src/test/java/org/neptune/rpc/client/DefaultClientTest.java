@@ -0,0 +1,167 @@
+package org.neptune.rpc.client;
+
+import io.netty.channel.Channel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedAddress;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.registry.RegistryMeta;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.registry.ServiceSubscriber;
+import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.SocketChannelFactoryProvider.SocketType;
+import org.neptune.transport.connection.Connection;
+import org.neptune.transport.connection.ConnectionGroup;
+import org.neptune.transport.connector.NettyConnector;
+import org.neptune.transport.processor.ConsumerProcessor;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * org.neptune.rpc.client - DefaultClientTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 14:10
+ */
+class DefaultClientTest {
+
+    private static final ServiceMeta META = new ServiceMeta("order", "1.0.0", "test");
+
+    static final class StubSubscriber implements ServiceSubscriber {
+        RegistryNotifier notifier;
+
+        @Override
+        public Map<Object, Integer> consumers() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void subscribe(ServiceMeta serviceMeta, RegistryNotifier notifier) {
+            this.notifier = notifier;
+        }
+
+        @Override
+        public void unsubscribe(ServiceMeta serviceMeta) {
+        }
+
+        @Override
+        public Set<RegistryMeta> serviceList(ServiceMeta serviceMeta) {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public RegistryMeta[] providers(ServiceMeta serviceMeta) {
+            return new RegistryMeta[0];
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+    }
+
+    static final ConsumerProcessor NOOP = new ConsumerProcessor() {
+        @Override
+        public void handlerResponse(Channel channel, ResponsePayload response) {
+            response.release();
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+    };
+
+    private ServerSocket live;
+    private UnresolvedAddress good;
+    private UnresolvedAddress refused;
+    private NettyConnector connector;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // 不 accept 也能完成握手(进入全连接队列), 足够充当一个可达的提供者
+        live = new ServerSocket(0);
+        good = new UnresolvedSocketAddress("127.0.0.1", live.getLocalPort());
+        try (ServerSocket closed = new ServerSocket(0)) {
+            refused = new UnresolvedSocketAddress("127.0.0.1", closed.getLocalPort());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (connector != null) {
+            connector.shutdownGracefully();
+        }
+        live.close();
+    }
+
+    @Test
+    public void testRefusedProviderDoesNotBlockUpdate() throws InterruptedException {
+        connector = new NettyConnector(NOOP, SocketType.JAVA_NIO);
+        verifyUpdate(connector);
+    }
+
+    @Test
+    public void testConnectFailureIsIsolated() throws InterruptedException {
+        // 同步抛出的连接异常也只影响这一个地址
+        connector = new NettyConnector(NOOP, SocketType.JAVA_NIO) {
+            @Override
+            public Connection connect(UnresolvedAddress address, boolean async) {
+                if (address.equals(refused)) {
+                    throw new RuntimeException("connect error: " + address);
+                }
+                return super.connect(address, async);
+            }
+        };
+        verifyUpdate(connector);
+    }
+
+    private void verifyUpdate(NettyConnector connector) throws InterruptedException {
+        StubSubscriber subscriber = new StubSubscriber();
+        DefaultClient client = DefaultClient.builder()
+                .serviceSubscriber(subscriber)
+                .connector(connector)
+                .build();
+        client.watchForServerAvailable(META);
+
+        subscriber.notifier.providersChanged(META, new RegistryMeta[]{provider(refused), provider(good)});
+        ProviderSnapshot snapshot = client.providers(META).get();
+        Assertions.assertEquals(2, snapshot.size());
+
+        ConnectionGroup goodGroup = connector.getAddressConnects(good);
+        ConnectionGroup refusedGroup = connector.getAddressConnects(refused);
+        awaitTrue(() -> goodGroup.next() != null);
+        // 连不上的地址没有可用连接, 调用时由 dispatcher 快速失败
+        Assertions.assertNull(refusedGroup.next());
+
+        // 提供者下线后, 连不上的地址同样被释放
+        subscriber.notifier.providersChanged(META, new RegistryMeta[]{provider(good)});
+        snapshot = client.providers(META).get();
+        Assertions.assertEquals(1, snapshot.size());
+        Assertions.assertEquals(good, snapshot.address(0));
+        Assertions.assertTrue(refusedGroup.connections().isEmpty());
+        Assertions.assertNotSame(refusedGroup, connector.getAddressConnects(refused));
+        Assertions.assertSame(goodGroup, connector.getAddressConnects(good));
+    }
+
+    private static RegistryMeta provider(UnresolvedAddress address) {
+        RegistryMeta meta = new RegistryMeta();
+        meta.setAddress(address);
+        return meta;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+}
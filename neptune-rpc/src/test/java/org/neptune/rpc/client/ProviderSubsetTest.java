@@ -0,0 +1,90 @@
+package org.neptune.rpc.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.registry.RegistryMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * org.neptune.rpc.client - ProviderSubsetTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 20:40
+ */
+class ProviderSubsetTest {
+
+    private static RegistryMeta[] providers(int n) {
+        RegistryMeta[] providers = new RegistryMeta[n];
+        for (int i = 0; i < n; i++) {
+            providers[i] = new RegistryMeta();
+            providers[i].setAddress(new UnresolvedSocketAddress("10.1." + (i >> 8) + "." + (i & 0xFF), 8001));
+        }
+        return providers;
+    }
+
+    private static Set<RegistryMeta> subset(String clientId, RegistryMeta[] providers, int size) {
+        return new HashSet<>(Arrays.asList(ProviderSubset.select(clientId, providers, size)));
+    }
+
+    @Test
+    public void testStableAndBounded() {
+        RegistryMeta[] providers = providers(500);
+        RegistryMeta[] subset = ProviderSubset.select("client-1", providers, 20);
+        Assertions.assertEquals(20, subset.length);
+        Assertions.assertEquals(20, new HashSet<>(Arrays.asList(subset)).size());
+        Assertions.assertArrayEquals(subset, ProviderSubset.select("client-1", providers.clone(), 20));
+        Assertions.assertSame(providers, ProviderSubset.select("client-1", providers, 0));
+        Assertions.assertSame(providers, ProviderSubset.select("client-1", providers, 500));
+    }
+
+    @Test
+    public void testEvenDistribution() {
+        RegistryMeta[] providers = providers(500);
+        Map<RegistryMeta, Integer> load = new IdentityHashMap<>();
+        for (int c = 0; c < 1000; c++) {
+            for (RegistryMeta meta : ProviderSubset.select("order-service/" + c + "@10.2.0.1", providers, 20)) {
+                load.merge(meta, 1, Integer::sum);
+            }
+        }
+        // 期望每个提供者被 1000 * 20 / 500 = 40 个客户端选中
+        Assertions.assertEquals(500, load.size());
+        int max = load.values().stream().mapToInt(Integer::intValue).max().getAsInt();
+        int min = load.values().stream().mapToInt(Integer::intValue).min().getAsInt();
+        Assertions.assertTrue(max < 70 && min > 15, "min " + min + ", max " + max);
+    }
+
+    @Test
+    public void testMinimalRebalance() {
+        RegistryMeta[] providers = providers(100);
+        Set<RegistryMeta> before = subset("client-1", providers, 10);
+
+        // 子集外的提供者下线: 不变
+        List<RegistryMeta> list = new ArrayList<>(Arrays.asList(providers));
+        RegistryMeta outside = list.stream().filter(m -> !before.contains(m)).findFirst().get();
+        list.remove(outside);
+        Assertions.assertEquals(before, subset("client-1", list.toArray(new RegistryMeta[0]), 10));
+
+        // 子集内的提供者下线: 只换入一个
+        RegistryMeta inside = before.iterator().next();
+        list.remove(inside);
+        Set<RegistryMeta> after = subset("client-1", list.toArray(new RegistryMeta[0]), 10);
+        Assertions.assertEquals(10, after.size());
+        Set<RegistryMeta> kept = new HashSet<>(after);
+        kept.retainAll(before);
+        Assertions.assertEquals(9, kept.size());
+
+        // 下线的提供者重新上线: 恢复成原来的子集
+        list.add(inside);
+        list.add(outside);
+        Assertions.assertEquals(before, subset("client-1", list.toArray(new RegistryMeta[0]), 10));
+    }
+}
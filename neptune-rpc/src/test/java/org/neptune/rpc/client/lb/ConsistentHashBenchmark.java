@@ -0,0 +1,76 @@
+package org.neptune.rpc.client.lb;
+
+import org.neptune.registry.RegistryMeta;
+import org.neptune.rpc.client.ProviderSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.rpc.client.lb - ConsistentHashBenchmark
+ * lookup: 环不变时按 key 查找的开销; rebuild: 一个节点上线后增量重建与全量构建的开销
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 20:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsistentHashBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ProviderSnapshot snapshot;
+    private ProviderSnapshot grown;
+    private ConsistentHashLoadBalancer lb;
+    private ConsistentHashLoadBalancer.Ring ring;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        RegistryMeta[] providers = ConsistentHashLoadBalancerTest.providers(size + 1);
+        snapshot = ConsistentHashLoadBalancerTest.snapshot(Arrays.copyOf(providers, size));
+        grown = ConsistentHashLoadBalancerTest.snapshot(providers);
+        lb = new ConsistentHashLoadBalancer();
+        ring = new ConsistentHashLoadBalancer.Ring(snapshot, null, 160);
+        keys = new String[1024];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "user-" + i;
+        }
+    }
+
+    @Benchmark
+    public int lookup() {
+        return lb.select(snapshot, keys[next++ & 1023]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConsistentHashLoadBalancer.Ring rebuildIncremental() {
+        return new ConsistentHashLoadBalancer.Ring(grown, ring, 160);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConsistentHashLoadBalancer.Ring rebuildFull() {
+        return new ConsistentHashLoadBalancer.Ring(grown, null, 160);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConsistentHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
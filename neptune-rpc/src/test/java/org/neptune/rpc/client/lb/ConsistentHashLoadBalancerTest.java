@@ -0,0 +1,117 @@
+package org.neptune.rpc.client.lb;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.registry.RegistryMeta;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.client.ProviderSnapshot;
+
+import java.util.Arrays;
+
+
+/**
+ * org.neptune.rpc.client.lb - ConsistentHashLoadBalancerTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 20:00
+ */
+class ConsistentHashLoadBalancerTest {
+
+    private static final ServiceMeta SERVICE = new ServiceMeta("demo", "1.0.0", "test");
+    private static final int KEYS = 100_000;
+
+    static RegistryMeta provider(int i, int weight) {
+        RegistryMeta meta = new RegistryMeta();
+        meta.setServiceMeta(SERVICE);
+        meta.setAddress(new UnresolvedSocketAddress("10.0." + (i >> 8) + "." + (i & 0xFF), 8001));
+        meta.setWight(weight);
+        return meta;
+    }
+
+    static ProviderSnapshot snapshot(RegistryMeta... providers) {
+        return ProviderSnapshot.of(SERVICE, providers, null, null);
+    }
+
+    static RegistryMeta[] providers(int n) {
+        RegistryMeta[] providers = new RegistryMeta[n];
+        for (int i = 0; i < n; i++) {
+            providers[i] = provider(i, 1);
+        }
+        return providers;
+    }
+
+    private static RegistryMeta[] route(ConsistentHashLoadBalancer lb, ProviderSnapshot snapshot) {
+        RegistryMeta[] routes = new RegistryMeta[KEYS];
+        for (int k = 0; k < KEYS; k++) {
+            routes[k] = snapshot.provider(lb.select(snapshot, "user-" + k));
+        }
+        return routes;
+    }
+
+    @Test
+    public void testDistributionSkew() {
+        int n = 100;
+        ProviderSnapshot snapshot = snapshot(providers(n));
+        ConsistentHashLoadBalancer lb = new ConsistentHashLoadBalancer();
+        int[] counts = new int[n];
+        for (int k = 0; k < KEYS; k++) {
+            counts[lb.select(snapshot, "user-" + k)]++;
+        }
+        double mean = (double) KEYS / n;
+        double variance = 0;
+        for (int c : counts) {
+            variance += (c - mean) * (c - mean);
+        }
+        double cv = Math.sqrt(variance / n) / mean;
+        int max = Arrays.stream(counts).max().getAsInt();
+        // 160 个虚拟节点时 ketama 的标准差大约在均值的 10% 左右
+        Assertions.assertTrue(cv < 0.15, "coefficient of variation " + cv);
+        Assertions.assertTrue(max < mean * 1.5, "max load " + max + ", mean " + mean);
+    }
+
+    @Test
+    public void testWeightedDistribution() {
+        ProviderSnapshot snapshot = snapshot(provider(0, 1), provider(1, 3));
+        ConsistentHashLoadBalancer lb = new ConsistentHashLoadBalancer();
+        int heavy = 0;
+        for (int k = 0; k < KEYS; k++) {
+            heavy += lb.select(snapshot, "user-" + k);
+        }
+        Assertions.assertEquals(0.75, (double) heavy / KEYS, 0.05);
+    }
+
+    @Test
+    public void testStickyAndMinimalRemap() {
+        RegistryMeta[] providers = providers(10);
+        ConsistentHashLoadBalancer lb = new ConsistentHashLoadBalancer();
+        RegistryMeta[] before = route(lb, snapshot(providers));
+        Assertions.assertArrayEquals(before, route(lb, snapshot(providers.clone())));
+
+        // 下线一个节点: 只有原来落在它上面的 key 会迁移
+        RegistryMeta removed = providers[3];
+        RegistryMeta[] remaining = new RegistryMeta[9];
+        for (int i = 0, j = 0; i < providers.length; i++) {
+            if (i != 3) {
+                remaining[j++] = providers[i];
+            }
+        }
+        RegistryMeta[] after = route(lb, snapshot(remaining));
+        int moved = 0;
+        for (int k = 0; k < KEYS; k++) {
+            if (before[k] == removed) {
+                moved++;
+                Assertions.assertNotSame(removed, after[k]);
+            } else {
+                Assertions.assertSame(before[k], after[k]);
+            }
+        }
+        Assertions.assertEquals(KEYS / 10.0, moved, KEYS / 25.0);
+
+        // 重新上线(顺序不同), 增量重建后的环与全量构建的一致
+        RegistryMeta[] rejoined = Arrays.copyOf(remaining, 10);
+        rejoined[9] = removed;
+        Assertions.assertArrayEquals(before, route(lb, snapshot(rejoined)));
+        Assertions.assertArrayEquals(before, route(new ConsistentHashLoadBalancer(), snapshot(rejoined)));
+    }
+}
@@ -0,0 +1,60 @@
+package org.neptune.rpc.client.lb;
+
+import org.neptune.rpc.client.ProviderSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.rpc.client.lb - LoadBalancerBenchmark
+ * 服务列表不变时的单次选择开销
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 17:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"RANDOM", "ROUND_ROBIN", "WEIGHT_RANDOM", "WEIGHT_ROUND_ROBIN", "LEAST_LOADED"})
+    public LoadBalancer.LoadBalancerType type;
+
+    private ProviderSnapshot snapshot;
+    private LoadBalancer loadBalancer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        int[] weights = new int[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = 1 + random.nextInt(100);
+        }
+        snapshot = LoadBalancerTest.snapshot(weights);
+        loadBalancer = LoadBalancerFactory.create(type);
+    }
+
+    @Benchmark
+    public int select() {
+        return loadBalancer.select(snapshot);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LoadBalancerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
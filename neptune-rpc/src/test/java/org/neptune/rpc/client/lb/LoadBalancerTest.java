@@ -0,0 +1,120 @@
+package org.neptune.rpc.client.lb;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.registry.RegistryMeta;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.client.ProviderSnapshot;
+
+
+/**
+ * org.neptune.rpc.client.lb - LoadBalancerTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 17:30
+ */
+class LoadBalancerTest {
+
+    static ProviderSnapshot snapshot(int... weights) {
+        RegistryMeta[] providers = new RegistryMeta[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            providers[i] = new RegistryMeta();
+            providers[i].setAddress(new UnresolvedSocketAddress("10.0.0." + i, 8001));
+            providers[i].setWight(weights[i]);
+        }
+        return ProviderSnapshot.of(new ServiceMeta("demo", "1.0.0", "test"), providers, null, null);
+    }
+
+    private static int[] count(LoadBalancer lb, ProviderSnapshot snapshot, int times) {
+        int[] counts = new int[snapshot.size()];
+        for (int i = 0; i < times; i++) {
+            counts[lb.select(snapshot)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void testRoundRobin() {
+        ProviderSnapshot snapshot = snapshot(1, 1, 1);
+        LoadBalancer lb = new RoundRobinLoadBalancer();
+        for (int i = 0; i < 9; i++) {
+            Assertions.assertEquals(i % 3, lb.select(snapshot));
+        }
+    }
+
+    @Test
+    public void testSmoothWeightRoundRobin() {
+        ProviderSnapshot snapshot = snapshot(5, 1, 1);
+        LoadBalancer lb = new WeightRoundRobinLoadBalancer();
+        int[] expected = {0, 0, 1, 0, 2, 0, 0};
+        for (int round = 0; round < 3; round++) {
+            for (int i : expected) {
+                Assertions.assertEquals(i, lb.select(snapshot));
+            }
+        }
+    }
+
+    @Test
+    public void testSmoothWeightRoundRobinLongCycle() {
+        // 权重互质且很大, 不做预计算, 走加锁的标准算法
+        int[] counts = count(new WeightRoundRobinLoadBalancer(), snapshot(999_983, 1_000_003, 3), 200_000);
+        Assertions.assertEquals(0, counts[2]);
+        Assertions.assertEquals(100_000, counts[0], 10);
+    }
+
+    @Test
+    public void testWeightRandom() {
+        int[] counts = count(new WeightRandomLoadBalancer(), snapshot(10, 30, 60, 0), 100_000);
+        Assertions.assertEquals(10_000, counts[0], 1_000);
+        Assertions.assertEquals(30_000, counts[1], 1_500);
+        Assertions.assertEquals(60_000, counts[2], 1_500);
+        Assertions.assertEquals(0, counts[3]);
+    }
+
+    @Test
+    public void testWeightRandomAliasTable() {
+        int[] weights = new int[40];
+        weights[7] = 3;
+        weights[31] = 1;
+        LoadBalancer lb = new WeightRandomLoadBalancer();
+        int[] counts = count(lb, snapshot(weights), 40_000);
+        Assertions.assertEquals(30_000, counts[7], 1_000);
+        Assertions.assertEquals(10_000, counts[31], 1_000);
+
+        // 新的快照会重建选择表
+        weights[7] = 0;
+        counts = count(lb, snapshot(weights), 1_000);
+        Assertions.assertEquals(1_000, counts[31]);
+    }
+
+    @Test
+    public void testLeastLoaded() throws InterruptedException {
+        ProviderSnapshot snapshot = snapshot(1, 1, 1);
+        LoadBalancer lb = LoadBalancerFactory.create(LoadBalancer.LoadBalancerType.LEAST_LOADED);
+
+        // 0 变慢, 1 很快, 2 还没有样本但有一个在途请求
+        long start = snapshot.stats(0).start();
+        Thread.sleep(20);
+        snapshot.stats(0).finish(start);
+        snapshot.stats(1).finish(snapshot.stats(1).start());
+        snapshot.stats(2).start();
+
+        int[] counts = count(lb, snapshot, 1_000);
+        Assertions.assertEquals(0, counts[2]);
+        Assertions.assertTrue(counts[1] > 600, "fast provider should win every pair it is in");
+        Assertions.assertEquals(1_000, counts[0] + counts[1]);
+        // 两两比较, 慢节点只在和无样本节点配对时被选中
+        Assertions.assertTrue(counts[0] < 400);
+    }
+
+    @Test
+    public void testSnapshotLocate() {
+        ProviderSnapshot snapshot = snapshot(2, 0, 3);
+        Assertions.assertEquals(5, snapshot.totalWeight());
+        int[] expected = {0, 0, 2, 2, 2};
+        for (int point = 0; point < expected.length; point++) {
+            Assertions.assertEquals(expected[point], snapshot.locate(point));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.neptune.rpc.processor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.RequestBody;
+import org.neptune.rpc.ResponseBody;
+import org.neptune.rpc.annotation.NonBlocking;
+import org.neptune.rpc.annotation.RpcService;
+import org.neptune.rpc.annotation.RpcServiceImpl;
+import org.neptune.rpc.seialize.KryoSerializer;
+import org.neptune.rpc.seialize.io.NettyOutputBuf;
+import org.neptune.rpc.server.executor.ServiceExecutor;
+import org.neptune.rpc.server.executor.ServiceExecutors;
+import org.neptune.rpc.server.provider.ProviderRegistry;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.Status;
+import org.neptune.transport.protocol.ProtocolHeader;
+
+import java.util.concurrent.CountDownLatch;
+
+
+/**
+ * org.neptune.rpc.processor - DefaultProviderProcessorTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 11:20
+ */
+class DefaultProviderProcessorTest {
+
+    @RpcService(name = "thread", version = "1.0.0", group = "test")
+    public interface ThreadService {
+        String blocking();
+
+        String inline();
+    }
+
+    @RpcServiceImpl
+    public static class ThreadServiceImpl implements ThreadService {
+        @Override
+        public String blocking() {
+            return Thread.currentThread().getName();
+        }
+
+        @NonBlocking
+        @Override
+        public String inline() {
+            return Thread.currentThread().getName();
+        }
+    }
+
+    @RpcService(name = "plain", version = "1.0.0", group = "test")
+    public interface PlainService {
+        String hello();
+    }
+
+    @RpcServiceImpl
+    public static class PlainServiceImpl implements PlainService {
+        @Override
+        public String hello() {
+            return "hello";
+        }
+    }
+
+    private final KryoSerializer serializer = new KryoSerializer();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private ServiceExecutor busy;
+
+    @AfterEach
+    public void tearDown() {
+        unblock.countDown();
+        if (busy != null) {
+            busy.shutdown();
+        }
+    }
+
+    // 一个线程, 一个队列位置, 都被占满
+    private ServiceExecutor saturatedExecutor() {
+        busy = ServiceExecutor.platform("busy", 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        busy.execute(() -> {
+            started.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        busy.execute(() -> {
+        });
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return busy;
+    }
+
+    private RequestPayload request(ServiceMeta meta, String methodName) {
+        RequestBody body = new RequestBody(meta);
+        body.setMethodName(methodName);
+        body.setArgs(new Object[0]);
+        ByteBuf buf = Unpooled.buffer();
+        serializer.writeObject(new NettyOutputBuf(buf), body);
+        RequestPayload payload = RequestPayload.newInstance(7);
+        payload.setSerialTypeCode(serializer.typeCode());
+        payload.setByteBuf(buf);
+        return payload;
+    }
+
+    private Object resultOf(ResponsePayload response) {
+        ByteBuf frame = response.getByteBuf();
+        try {
+            return serializer.readObject(frame.nioBuffer(frame.readerIndex() + ProtocolHeader.HEADER_SIZE,
+                    frame.readableBytes() - ProtocolHeader.HEADER_SIZE), ResponseBody.class).getResult();
+        } finally {
+            response.release();
+        }
+    }
+
+    @Test
+    public void testSaturatedExecutorRejects() throws Exception {
+        ProviderRegistry registry = new ProviderRegistry();
+        registry.register(new PlainServiceImpl());
+        ServiceExecutor executor = saturatedExecutor();
+        DefaultProviderProcessor processor = new DefaultProviderProcessor(registry, new ServiceExecutors(executor));
+
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RequestPayload request = request(new ServiceMeta("plain", "1.0.0", "test"), "hello");
+        ByteBuf body = request.getByteBuf();
+        processor.handleRequest(channel, request);
+        channel.runPendingTasks();
+
+        Assertions.assertEquals(0, body.refCnt());
+        Assertions.assertEquals(1, executor.rejectedCount());
+        ResponsePayload response = channel.readOutbound();
+        Assertions.assertEquals(7, response.getXid());
+        Assertions.assertEquals(Status.SERVER_BUSY.value(), response.getStatus());
+        Assertions.assertNotNull(resultOf(response));
+        Assertions.assertNull(channel.readOutbound());
+    }
+
+    @Test
+    public void testNonBlockingRunsInline() throws Exception {
+        ProviderRegistry registry = new ProviderRegistry();
+        registry.register(new ThreadServiceImpl());
+        // 业务线程池已经满了, 非阻塞方法依然能在调用线程上完成
+        DefaultProviderProcessor processor = new DefaultProviderProcessor(registry, new ServiceExecutors(saturatedExecutor()));
+        ServiceMeta meta = new ServiceMeta("thread", "1.0.0", "test");
+
+        EmbeddedChannel channel = new EmbeddedChannel();
+        processor.handleRequest(channel, request(meta, "inline"));
+        channel.runPendingTasks();
+        ResponsePayload response = channel.readOutbound();
+        Assertions.assertEquals(Status.OK.value(), response.getStatus());
+        Assertions.assertEquals(Thread.currentThread().getName(), resultOf(response));
+
+        // 普通方法依然交给业务线程池, 这里被拒绝
+        processor.handleRequest(channel, request(meta, "blocking"));
+        channel.runPendingTasks();
+        response = channel.readOutbound();
+        Assertions.assertEquals(Status.SERVER_BUSY.value(), response.getStatus());
+        response.release();
+    }
+}
@@ -0,0 +1,124 @@
+package org.neptune.rpc.seialize;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.RequestBody;
+import org.neptune.rpc.seialize.io.NettyOutputBuf;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.protocol.ProtocolDecoder;
+import org.neptune.transport.protocol.ProtocolEncoder;
+import org.neptune.transport.protocol.ProtocolHeader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * org.neptune.rpc.seialize - KryoSerializerTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 10:40
+ */
+class KryoSerializerTest {
+
+    private final KryoSerializer serializer = new KryoSerializer();
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static RequestBody requestOf(Object... args) {
+        RequestBody body = new RequestBody(new ServiceMeta("demo", "1.0.0", "test"));
+        body.setMethodName("hello");
+        body.setArgs(args);
+        return body;
+    }
+
+    private void assertRoundTrip(ByteBuf buf, Object value) {
+        try {
+            int start = buf.writerIndex();
+            NettyOutputBuf output = new NettyOutputBuf(buf);
+            serializer.writeObject(output, value);
+            Assertions.assertEquals(buf.writerIndex() - start, output.size());
+
+            Object read = serializer.readObject(buf.nioBuffer(start, buf.writerIndex() - start), value.getClass());
+            if (value instanceof long[]) {
+                Assertions.assertArrayEquals((long[]) value, (long[]) read);
+            } else {
+                Assertions.assertEquals(value, read);
+            }
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testPayloadLargerThanInitialBuffer() {
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            strings.add("s" + i); // 大量小写入, 多次跨越视图边界
+        }
+        long[] longs = new long[50000];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = i * 31L;
+        }
+        Object[] values = {"small", repeat('a', 300), repeat('b', 64 * 1024), repeat('c', 1024 * 1024), strings, longs};
+
+        for (ByteBufAllocator alloc : new ByteBufAllocator[]{UnpooledByteBufAllocator.DEFAULT, PooledByteBufAllocator.DEFAULT}) {
+            for (Object value : values) {
+                assertRoundTrip(alloc.heapBuffer(16), value);
+                assertRoundTrip(alloc.directBuffer(16), value);
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAfterExistingBytes() {
+        ByteBuf buf = Unpooled.directBuffer(32).writeLong(0xcafe);
+        assertRoundTrip(buf, repeat('x', 4096));
+    }
+
+    @Test
+    public void testEncoderDirectWritePath() {
+        String big = repeat('z', 200 * 1024);
+        EmbeddedChannel channel = new EmbeddedChannel(new ProtocolEncoder());
+
+        ByteBuf frame = ProtocolEncoder.allocateFrame(channel.alloc());
+        serializer.writeObject(new NettyOutputBuf(frame), requestOf(big, 7));
+        int bodySize = frame.readableBytes() - ProtocolHeader.HEADER_SIZE;
+        RequestPayload payload = RequestPayload.newInstance(42);
+        payload.setSerialTypeCode(serializer.typeCode());
+        payload.setByteBuf(frame);
+
+        Assertions.assertTrue(channel.writeOutbound(payload));
+        ByteBuf encoded = channel.readOutbound();
+        Assertions.assertSame(frame, encoded); // 帧没有被拷贝, 只回填了协议头
+        Assertions.assertEquals(ProtocolHeader.MAGIC_WORD, encoded.getShort(encoded.readerIndex()));
+        Assertions.assertEquals(42, encoded.getLong(encoded.readerIndex() + 4));
+        Assertions.assertEquals(bodySize, encoded.getInt(encoded.readerIndex() + 12));
+        Assertions.assertFalse(channel.finish());
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new ProtocolDecoder());
+        Assertions.assertTrue(decoder.writeInbound(encoded));
+        RequestPayload decoded = decoder.readInbound();
+        try {
+            Assertions.assertEquals(42, decoded.getXid());
+            RequestBody body = serializer.readObject(decoded.getByteBuf().nioBuffer(), RequestBody.class);
+            Assertions.assertEquals("hello", body.getMethodName());
+            Assertions.assertArrayEquals(new Object[]{big, 7}, body.getArgs());
+        } finally {
+            decoded.release();
+        }
+        Assertions.assertFalse(decoder.finish());
+    }
+}
@@ -0,0 +1,77 @@
+package org.neptune.rpc.server.executor;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.rpc.server.executor - ServiceExecutorBenchmark
+ * 阻塞型服务(每次调用 sleep 模拟 JDBC/下游 RPC): 一批并发请求全部完成的耗时, 平台线程池 vs 虚拟线程
+ * <p>
+ * virtual 需要使用 JDK 21+ 运行
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 17:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceExecutorBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"2000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public int sleepMillis;
+
+    private ServiceExecutor executor;
+
+    @Setup
+    public void setup() {
+        // latch 先于许可释放, 留出余量避免上一批的尾巴导致拒绝
+        int capacity = concurrency << 1;
+        executor = "virtual".equals(mode)
+                ? ServiceExecutor.virtual("bench", capacity)
+                : ServiceExecutor.platform("bench", 200, capacity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void blockingCalls() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(concurrency);
+        Runnable call = () -> {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException ignored) {
+            }
+            latch.countDown();
+        };
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(call);
+        }
+        latch.await();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ServiceExecutorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,193 @@
+package org.neptune.rpc.server.executor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.util.VirtualThreads;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.server.DefaultServer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+
+/**
+ * org.neptune.rpc.server.executor - ServiceExecutorsTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 11:50
+ */
+class ServiceExecutorsTest {
+
+    private static final ServiceMeta ORDER = new ServiceMeta("order", "1.0.0", "test");
+    private static final ServiceMeta USER = new ServiceMeta("user", "1.0.0", "test");
+
+    @Test
+    public void testSelectPrecedence() {
+        ServiceExecutor defaultExecutor = ServiceExecutor.platform("default", 1, 1);
+        ServiceExecutors executors = new ServiceExecutors(defaultExecutor);
+        try {
+            Assertions.assertFalse(executors.isIsolated());
+            Assertions.assertSame(defaultExecutor, executors.select(ORDER, "create"));
+
+            executors.isolate(ORDER, 1, 1).isolate(ORDER, "slow", 1, 1);
+            Assertions.assertTrue(executors.isIsolated());
+
+            ServiceExecutor method = executors.select(ORDER, "slow");
+            ServiceExecutor service = executors.select(ORDER, "create");
+            Assertions.assertEquals(ORDER.toFlatString() + "#slow", method.name());
+            Assertions.assertEquals(ORDER.toFlatString(), service.name());
+            Assertions.assertNotSame(method, service);
+            Assertions.assertSame(service, executors.select(ORDER, null));
+
+            // 其他服务以及不知道目标服务时都走默认线程池
+            Assertions.assertSame(defaultExecutor, executors.select(USER, "slow"));
+            Assertions.assertSame(defaultExecutor, executors.select(null, "slow"));
+            Assertions.assertSame(defaultExecutor, executors.defaultExecutor());
+            Assertions.assertEquals(3, executors.executors().size());
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    public void testMethodOnlyIsolation() {
+        ServiceExecutors executors = new ServiceExecutors(ServiceExecutor.platform("default", 1, 1));
+        try {
+            executors.isolate(ORDER, "slow", 1, 1);
+            Assertions.assertEquals(ORDER.toFlatString() + "#slow", executors.select(ORDER, "slow").name());
+            // 没有服务级别的线程池时, 其他方法退回默认线程池
+            Assertions.assertSame(executors.defaultExecutor(), executors.select(ORDER, "create"));
+        } finally {
+            executors.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuilderWiring() {
+        DefaultServer server = DefaultServer.builder()
+                .port(0)
+                .executorThreads(2)
+                .executorQueueSize(16)
+                .serviceExecutor(ORDER, 3, 32)
+                .methodExecutor(ORDER, "slow", 1, 4)
+                .build();
+        try {
+            ServiceExecutors executors = server.serviceExecutors();
+            Assertions.assertEquals(16, executors.defaultExecutor().queueCapacity());
+
+            ServiceExecutor method = executors.select(ORDER, "slow");
+            Assertions.assertEquals(ORDER.toFlatString() + "#slow", method.name());
+            Assertions.assertEquals(4, method.queueCapacity());
+
+            ServiceExecutor service = executors.select(ORDER, "create");
+            Assertions.assertEquals(ORDER.toFlatString(), service.name());
+            Assertions.assertEquals(32, service.queueCapacity());
+
+            Assertions.assertSame(executors.defaultExecutor(), executors.select(USER, "slow"));
+        } finally {
+            // 没有设置 servicePublisher, 只关闭 acceptor(连带关闭业务线程池)
+            server.acceptor().shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsBuilder() {
+        // maxConcurrency <= 0 时仍然开启虚拟线程, 最大并发数取 -Dneptune.server.executor.virtual.maxConcurrency
+        assertVirtualDefault(DefaultServer.builder().port(0).virtualThreads(0).build(), 10000);
+        assertVirtualDefault(DefaultServer.builder().port(0).virtualThreads(64).build(), 64);
+    }
+
+    private static void assertVirtualDefault(DefaultServer server, int maxConcurrency) {
+        try {
+            ServiceExecutor executor = server.serviceExecutors().defaultExecutor();
+            if (VirtualThreads.isAvailable()) {
+                Assertions.assertTrue(executor.isVirtual());
+            } else {
+                // 退化为平台线程池, 用队列承接最大并发数
+                Assertions.assertFalse(executor.isVirtual());
+                Assertions.assertEquals(maxConcurrency, executor.queueCapacity());
+            }
+        } finally {
+            server.acceptor().shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testPlatformStats() throws InterruptedException {
+        ServiceExecutor executor = ServiceExecutor.platform("stats", 1, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assertions.assertFalse(executor.isVirtual());
+            Assertions.assertEquals(2, executor.queueCapacity());
+
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+            Assertions.assertEquals(1, executor.activeCount());
+            Assertions.assertEquals(2, executor.queueSize());
+
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+            Assertions.assertEquals(2, executor.rejectedCount());
+
+            release.countDown();
+            awaitCount(3, executor::completedCount);
+            Assertions.assertEquals(0, executor.queueSize());
+            Assertions.assertEquals(2, executor.rejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualStats() throws InterruptedException {
+        Assumptions.assumeTrue(VirtualThreads.isAvailable(), "virtual thread is not available");
+        ServiceExecutor executor = ServiceExecutor.virtual("stats", 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assertions.assertTrue(executor.isVirtual());
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, executor.activeCount());
+
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+            Assertions.assertEquals(1, executor.rejectedCount());
+
+            release.countDown();
+            awaitCount(1, executor::completedCount);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // completedCount 在任务结束之后才更新, 轮询等待
+    private static void awaitCount(long expected, LongSupplier count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(expected, count.getAsLong());
+    }
+}
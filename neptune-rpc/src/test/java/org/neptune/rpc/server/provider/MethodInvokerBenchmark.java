@@ -0,0 +1,80 @@
+package org.neptune.rpc.server.provider;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.rpc.server.provider - MethodInvokerBenchmark
+ * 服务方法调用: 直接调用 / 反射 / MethodHandle / ByteBuddy 生成的调用器
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:40
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+    public interface Echo {
+        String echo(String s, int times);
+    }
+
+    public static class EchoImpl implements Echo {
+        @Override
+        public String echo(String s, int times) {
+            return times > 0 ? s : null;
+        }
+    }
+
+    private Echo target;
+    private Object[] args;
+    private Method method;
+    private MethodInvoker methodHandle;
+    private MethodInvoker generated;
+
+    @Setup
+    public void setup() throws Exception {
+        target = new EchoImpl();
+        args = new Object[]{"hello", 1};
+        method = Echo.class.getMethod("echo", String.class, int.class);
+        methodHandle = MethodInvokers.methodHandle(method);
+        generated = MethodInvokers.generate(method);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return target.echo((String) args[0], (Integer) args[1]);
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return method.invoke(target, args);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Throwable {
+        return methodHandle.invoke(target, args);
+    }
+
+    @Benchmark
+    public Object generated() throws Throwable {
+        return generated.invoke(target, args);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MethodInvokerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
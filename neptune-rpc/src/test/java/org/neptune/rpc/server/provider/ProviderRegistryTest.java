@@ -0,0 +1,119 @@
+package org.neptune.rpc.server.provider;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.registry.ServiceMeta;
+import org.neptune.rpc.annotation.RpcService;
+import org.neptune.rpc.annotation.RpcServiceImpl;
+
+import java.io.IOException;
+
+
+/**
+ * org.neptune.rpc.server.provider - ProviderRegistryTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:30
+ */
+class ProviderRegistryTest {
+
+    @RpcService(name = "calc", version = "1.0.0", group = "test")
+    public interface Calculator {
+        int add(int a, int b);
+
+        long add(long a, long b);
+
+        String echo(String s);
+
+        void ping();
+
+        String read() throws IOException;
+    }
+
+    @RpcServiceImpl
+    public static class CalculatorImpl implements Calculator {
+        int pings;
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public long add(long a, long b) {
+            return a + b + 1;
+        }
+
+        @Override
+        public String echo(String s) {
+            return s;
+        }
+
+        @Override
+        public void ping() {
+            pings++;
+        }
+
+        @Override
+        public String read() throws IOException {
+            throw new IOException("broken");
+        }
+    }
+
+    private static final ServiceMeta META = new ServiceMeta("calc", "1.0.0", "test");
+
+    @Test
+    public void testLookupAndInvoke() throws Throwable {
+        ProviderRegistry registry = new ProviderRegistry();
+        CalculatorImpl impl = new CalculatorImpl();
+        registry.register(impl);
+
+        Assertions.assertEquals(3, registry.lookup(META, "add", new Object[]{1, 2}).invoke(new Object[]{1, 2}));
+        Assertions.assertEquals(4L, registry.lookup(META, "add", new Object[]{1L, 2L}).invoke(new Object[]{1L, 2L}));
+        Assertions.assertEquals("hi", registry.lookup(META, "echo", new Object[]{"hi"}).invoke(new Object[]{"hi"}));
+        Assertions.assertNull(registry.lookup(META, "ping", null).invoke(null));
+        Assertions.assertEquals(1, impl.pings);
+
+        Assertions.assertNull(registry.lookup(META, "echo", new Object[]{"a", "b"}));
+        Assertions.assertNull(registry.lookup(META, "missing", null));
+        Assertions.assertNull(registry.lookup(new ServiceMeta("calc", "2.0.0", "test"), "echo", new Object[]{"hi"}));
+    }
+
+    @Test
+    public void testDeclaredException() {
+        ProviderRegistry registry = new ProviderRegistry();
+        registry.register(new CalculatorImpl());
+        ProviderMethod read = registry.lookup(META, "read", null);
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> read.invoke(null));
+        Assertions.assertTrue(read.isDeclaredException(e));
+        Assertions.assertFalse(read.isDeclaredException(new IllegalStateException()));
+    }
+
+    @Test
+    public void testMethodHandleInvoker() throws Throwable {
+        MethodInvoker invoker = MethodInvokers.methodHandle(Calculator.class.getMethod("add", int.class, int.class));
+        Assertions.assertEquals(5, invoker.invoke(new CalculatorImpl(), new Object[]{2, 3}));
+        MethodInvoker ping = MethodInvokers.methodHandle(Calculator.class.getMethod("ping"));
+        Assertions.assertNull(ping.invoke(new CalculatorImpl(), new Object[0]));
+    }
+
+    @Test
+    public void testGeneratedInvoker() throws Throwable {
+        MethodInvoker add = MethodInvokers.generate(Calculator.class.getMethod("add", int.class, int.class));
+        // 生成的类而不是 MethodHandle 的 lambda
+        Assertions.assertFalse(add.getClass().isSynthetic());
+        Assertions.assertTrue(add.getClass().getName().contains("$NeptuneInvoker$"));
+        Assertions.assertEquals(5, add.invoke(new CalculatorImpl(), new Object[]{2, 3}));
+
+        CalculatorImpl impl = new CalculatorImpl();
+        MethodInvoker ping = MethodInvokers.generate(Calculator.class.getMethod("ping"));
+        Assertions.assertNull(ping.invoke(impl, new Object[0]));
+        Assertions.assertEquals(1, impl.pings);
+
+        // create 不应该退化到 MethodHandle
+        MethodInvoker echo = MethodInvokers.create(Calculator.class.getMethod("echo", String.class));
+        Assertions.assertTrue(echo.getClass().getName().contains("$NeptuneInvoker$"));
+        Assertions.assertEquals("hi", echo.invoke(impl, new Object[]{"hi"}));
+    }
+}
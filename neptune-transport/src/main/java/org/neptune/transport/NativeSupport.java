@@ -17,6 +17,7 @@ package org.neptune.transport;
 
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.kqueue.KQueue;
+import io.netty.incubator.channel.uring.IOUring;
 
 /**
  * Netty provides the native socket transport using JNI.
@@ -31,6 +32,18 @@ public final class NativeSupport {
         return Epoll.isAvailable();
     }
 
+    /**
+     * The io_uring transport for Linux (kernel 5.9+) using JNI.
+     */
+    public static boolean isNativeIoUringAvailable() {
+        try {
+            return IOUring.isAvailable();
+        } catch (Throwable t) {
+            // 非 linux-x86_64 平台上可能连 native 库的加载都会失败
+            return false;
+        }
+    }
+
     /**
      * The native socket transport for BSD systems such as MacOS using JNI.
      */
@@ -15,18 +15,33 @@
  */
 package org.neptune.transport;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCounted;
+
 /**
  * org.neptune.rpc.core - PayloadHolder
+ * 消息体有两种承载方式:
+ * 1. byte[]
+ * 2. ByteBuf, 入站时是解码器交出的消息体 retained slice; 出站时是业务线程直接序列化进去的完整帧,
+ * 头部预留了 {@link org.neptune.transport.protocol.ProtocolHeader#HEADER_SIZE} 字节由 encoder 回填
+ * <p>
+ * 实现 ReferenceCounted 是为了让 netty 在写失败(比如 channel 已关闭)时能够自动释放持有的 ByteBuf,
+ * refCnt/retain/release 都委托给 ByteBuf, 调用方经由 holder 取得的引用各自归还
  *
  * @author tony-is-coding
  * @date 2021/12/24 13:53
  */
-public class PayloadHolder {
+public class PayloadHolder implements ReferenceCounted {
 
     private byte serialTypeCode;
 
     private byte[] bytes;  // 实际 请求/响应体 字节数组
 
+    private ByteBuf byteBuf; // 入站: 请求/响应体 的 retained slice; 出站: 预留了协议头的完整帧
+
+    private int holderRefs; // 经由 holder 持有的 ByteBuf 引用数, setByteBuf 时为 1, 随 retain/release 增减
+
     public byte[] getBytes() {
         return bytes;
     }
@@ -35,6 +50,52 @@ public class PayloadHolder {
         this.bytes = bytes;
     }
 
+    public ByteBuf getByteBuf() {
+        return byteBuf;
+    }
+
+    public void setByteBuf(ByteBuf byteBuf) {
+        this.byteBuf = byteBuf;
+        this.holderRefs = byteBuf == null ? 0 : 1;
+    }
+
+    /**
+     * 交出 ByteBuf 的所有权, 之后 release 不再对其生效
+     */
+    public ByteBuf detachByteBuf() {
+        ByteBuf buf = byteBuf;
+        byteBuf = null;
+        holderRefs = 0;
+        return buf;
+    }
+
+    /**
+     * 归还到对象池, 非池化创建的对象调用此方法无副作用; 回收后不可再访问
+     */
+    public void recycle() {
+    }
+
+    /**
+     * 回收到对象池之前清理状态, 仍经由 holder 持有的 ByteBuf 引用会全部归还
+     */
+    protected void clear() {
+        if (holderRefs > 0) {
+            release(holderRefs);
+        }
+        bytes = null;
+        serialTypeCode = 0;
+    }
+
+    /**
+     * 消息体长度, 兼容 byte[] 与 ByteBuf 两种承载方式
+     */
+    public int size() {
+        if (byteBuf != null) {
+            return byteBuf.readableBytes();
+        }
+        return bytes == null ? 0 : bytes.length;
+    }
+
     public void setSerialTypeCode(byte serialTypeCode) {
         this.serialTypeCode = serialTypeCode;
     }
@@ -42,4 +103,67 @@ public class PayloadHolder {
     public byte getSerialTypeCode() {
         return serialTypeCode;
     }
+
+    @Override
+    public int refCnt() {
+        ByteBuf buf = byteBuf;
+        return buf == null ? 0 : buf.refCnt();
+    }
+
+    @Override
+    public PayloadHolder retain() {
+        return retain(1);
+    }
+
+    @Override
+    public PayloadHolder retain(int increment) {
+        ByteBuf buf = byteBuf;
+        if (buf == null) {
+            throw new IllegalReferenceCountException(0, increment);
+        }
+        buf.retain(increment);
+        holderRefs += increment;
+        return this;
+    }
+
+    @Override
+    public PayloadHolder touch() {
+        return this;
+    }
+
+    @Override
+    public PayloadHolder touch(Object hint) {
+        ByteBuf buf = byteBuf;
+        if (buf != null) {
+            buf.touch(hint);
+        }
+        return this;
+    }
+
+    /**
+     * 释放一次持有的 ByteBuf 引用, 没有 ByteBuf 时返回 false
+     */
+    @Override
+    public boolean release() {
+        return release(1);
+    }
+
+    /**
+     * ByteBuf 真正被释放, 或者经由 holder 持有的引用全部归还时才清空字段;
+     * 入站的 retained slice 与 cumulation 共享引用计数, 归还自己的引用后 release 可能返回 false, 但 holder 已经不再持有它
+     */
+    @Override
+    public boolean release(int decrement) {
+        ByteBuf buf = byteBuf;
+        if (buf == null) {
+            return false;
+        }
+        boolean deallocated = buf.release(decrement);
+        holderRefs -= decrement;
+        if (deallocated || holderRefs <= 0) {
+            byteBuf = null;
+            holderRefs = 0;
+        }
+        return deallocated;
+    }
 }
@@ -15,17 +15,42 @@
  */
 package org.neptune.transport;
 
+import org.neptune.common.util.Recyclers;
+
 /**
  * org.neptune.rpc.core - RequestBody
+ * 热点对象, 通过 {@link #newInstance(long)} 从对象池获取, 出站时由 encoder 回收, 入站时由 processor 消费完回收
  *
  * @author tony-is-coding
  * @date 2021/12/24 14:03
  */
 public class RequestPayload extends PayloadHolder {
+
+    private static final Recyclers<RequestPayload> RECYCLERS = new Recyclers<RequestPayload>() {
+
+        @Override
+        protected RequestPayload newObject(Handle<RequestPayload> handle) {
+            return new RequestPayload(handle);
+        }
+    };
+
+    private final Recyclers.Handle<RequestPayload> handle;
+
     private long xid;
 
+    public static RequestPayload newInstance(long xid) {
+        RequestPayload payload = RECYCLERS.get();
+        payload.xid = xid;
+        return payload;
+    }
+
     public RequestPayload(long xid) {
         this.xid = xid;
+        this.handle = null;
+    }
+
+    private RequestPayload(Recyclers.Handle<RequestPayload> handle) {
+        this.handle = handle;
     }
 
     public void setXid(long xid) {
@@ -35,4 +60,14 @@ public class RequestPayload extends PayloadHolder {
     public long getXid() {
         return xid;
     }
+
+    @Override
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        clear();
+        xid = 0;
+        handle.recycle(this);
+    }
 }
@@ -15,18 +15,43 @@
  */
 package org.neptune.transport;
 
+import org.neptune.common.util.Recyclers;
+
 /**
  * org.neptune.rpc.transportLayer - ResponsePayload
+ * 热点对象, 通过 {@link #newInstance(long)} 从对象池获取, 出站时由 encoder 回收, 入站时由 processor 消费完回收
  *
  * @author tony-is-coding
  * @date 2021/12/24 14:04
  */
 public class ResponsePayload extends PayloadHolder {
-    private final long xid;
+
+    private static final Recyclers<ResponsePayload> RECYCLERS = new Recyclers<ResponsePayload>() {
+
+        @Override
+        protected ResponsePayload newObject(Handle<ResponsePayload> handle) {
+            return new ResponsePayload(handle);
+        }
+    };
+
+    private final Recyclers.Handle<ResponsePayload> handle;
+
+    private long xid;
     private byte status;
 
+    public static ResponsePayload newInstance(long xid) {
+        ResponsePayload payload = RECYCLERS.get();
+        payload.xid = xid;
+        return payload;
+    }
+
     public ResponsePayload(long xid) {
         this.xid = xid;
+        this.handle = null;
+    }
+
+    private ResponsePayload(Recyclers.Handle<ResponsePayload> handle) {
+        this.handle = handle;
     }
 
     public byte getStatus() {
@@ -40,4 +65,15 @@ public class ResponsePayload extends PayloadHolder {
     public long getXid() {
         return xid;
     }
+
+    @Override
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        clear();
+        xid = 0;
+        status = 0;
+        handle.recycle(this);
+    }
 }
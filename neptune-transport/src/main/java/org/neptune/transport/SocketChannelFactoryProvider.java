@@ -17,29 +17,43 @@ package org.neptune.transport;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
 import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.kqueue.KQueueSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadFactory;
 
 /**
  * org.neptune.rpc.transportLayer - SocketChannelFactoryProvider
+ * 传输模式 -> (EventLoopGroup, ChannelFactory) 的映射, acceptor 与 connector 两端共用
  *
  * @author tony-is-coding
  * @date 2021/12/20 14:50
  */
+@Slf4j
 public class SocketChannelFactoryProvider {
 
     public static final ChannelFactory<ServerChannel> JAVA_NIO_ACCEPTOR = NioServerSocketChannel::new;
     public static final ChannelFactory<ServerChannel> NATIVE_EPOLL_ACCEPTOR = EpollServerSocketChannel::new;
     public static final ChannelFactory<ServerChannel> NATIVE_KQUEUE_ACCEPTOR = KQueueServerSocketChannel::new;
+    public static final ChannelFactory<ServerChannel> NATIVE_IO_URING_ACCEPTOR = IOUringServerSocketChannel::new;
 
     public static final ChannelFactory<Channel> JAVA_NIO_CONNECTOR = NioSocketChannel::new;
     public static final ChannelFactory<Channel> NATIVE_EPOLL_CONNECTOR = EpollSocketChannel::new;
     public static final ChannelFactory<Channel> NATIVE_KQUEUE_CONNECTOR = KQueueSocketChannel::new;
+    public static final ChannelFactory<Channel> NATIVE_IO_URING_CONNECTOR = IOUringSocketChannel::new;
 
     public static ChannelFactory<Channel> connector(SocketType socketType) {
         switch (socketType) {
@@ -47,6 +61,8 @@ public class SocketChannelFactoryProvider {
                 return NATIVE_EPOLL_CONNECTOR;
             case NATIVE_KQUEUE:
                 return NATIVE_KQUEUE_CONNECTOR;
+            case NATIVE_IO_URING:
+                return NATIVE_IO_URING_CONNECTOR;
             default:
                 return JAVA_NIO_CONNECTOR;
         }
@@ -58,11 +74,29 @@ public class SocketChannelFactoryProvider {
                 return NATIVE_EPOLL_ACCEPTOR;
             case NATIVE_KQUEUE:
                 return NATIVE_KQUEUE_ACCEPTOR;
+            case NATIVE_IO_URING:
+                return NATIVE_IO_URING_ACCEPTOR;
             default:
                 return JAVA_NIO_ACCEPTOR;
         }
     }
 
+    /**
+     * EventLoopGroup 必须与 Channel 的类型匹配, 否则注册时会失败
+     */
+    public static EventLoopGroup eventLoopGroup(SocketType socketType, int nThreads, ThreadFactory threadFactory) {
+        switch (socketType) {
+            case NATIVE_EPOLL:
+                return new EpollEventLoopGroup(nThreads, threadFactory);
+            case NATIVE_KQUEUE:
+                return new KQueueEventLoopGroup(nThreads, threadFactory);
+            case NATIVE_IO_URING:
+                return new IOUringEventLoopGroup(nThreads, threadFactory);
+            default:
+                return new NioEventLoopGroup(nThreads, threadFactory);
+        }
+    }
+
     public static SocketType socketType(boolean isNative) {
         if (isNative && NativeSupport.isNativeEPollAvailable()) {
             return SocketType.NATIVE_EPOLL;
@@ -73,10 +107,57 @@ public class SocketChannelFactoryProvider {
         return SocketType.JAVA_NIO;
     }
 
+    /**
+     * 指定的传输模式在当前平台不可用时退化到 JAVA_NIO
+     */
+    public static SocketType socketType(SocketType preferred) {
+        if (isAvailable(preferred)) {
+            return preferred;
+        }
+        log.warn("socket type {} is not available on this platform, fallback to {}", preferred, SocketType.JAVA_NIO);
+        return SocketType.JAVA_NIO;
+    }
+
+    /**
+     * 按名称解析传输模式: nio / epoll / kqueue / io_uring / native(当前平台最优的 native 传输)
+     */
+    public static SocketType socketType(String name) {
+        if (name == null) {
+            return SocketType.JAVA_NIO;
+        }
+        switch (name.trim().toLowerCase()) {
+            case "epoll":
+                return socketType(SocketType.NATIVE_EPOLL);
+            case "kqueue":
+                return socketType(SocketType.NATIVE_KQUEUE);
+            case "io_uring":
+            case "iouring":
+                return socketType(SocketType.NATIVE_IO_URING);
+            case "native":
+                return socketType(true);
+            default:
+                return SocketType.JAVA_NIO;
+        }
+    }
+
+    public static boolean isAvailable(SocketType socketType) {
+        switch (socketType) {
+            case NATIVE_EPOLL:
+                return NativeSupport.isNativeEPollAvailable();
+            case NATIVE_KQUEUE:
+                return NativeSupport.isNativeKQueueAvailable();
+            case NATIVE_IO_URING:
+                return NativeSupport.isNativeIoUringAvailable();
+            default:
+                return true;
+        }
+    }
+
     public enum SocketType {
         JAVA_NIO,
         NATIVE_EPOLL,           // for linux
         NATIVE_KQUEUE,          // for bsd systems
+        NATIVE_IO_URING,        // for linux 5.9+
     }
 
     public enum ChannelType {
@@ -36,9 +36,15 @@ public interface Acceptor {
 
     void startAsync() throws Exception;
 
+    /**
+     * @param sync 为 true 时阻塞直到 acceptor 关闭
+     */
     void start(boolean sync) throws Exception;
 
-    // void sync(); // 是否可以像netty一样?
+    /**
+     * 阻塞直到 acceptor 关闭
+     */
+    void sync() throws InterruptedException;
 
     void shutdownGracefully();
 
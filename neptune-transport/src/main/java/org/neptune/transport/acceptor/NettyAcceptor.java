@@ -2,25 +2,31 @@ package org.neptune.transport.acceptor;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.flush.FlushConsolidationHandler;
-import io.netty.util.HashedWheelTimer;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.unix.UnixChannelOption;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
 import io.netty.util.NetUtil;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.internal.SystemPropertyUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.neptune.common.UnresolvedAddress;
 import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.transport.SocketChannelFactoryProvider;
 import org.neptune.transport.handler.AcceptorHandler;
 import org.neptune.transport.handler.AcceptorIdleTriggerHandler;
-import org.neptune.transport.handler.IdleStateChecker;
+import org.neptune.transport.handler.AdaptiveFlushHandler;
+import org.neptune.transport.handler.IdleChecker;
 import org.neptune.transport.processor.ProviderProcessor;
 import org.neptune.transport.protocol.ProtocolDecoder;
 import org.neptune.transport.protocol.ProtocolEncoder;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.neptune.transport.SocketChannelFactoryProvider.SocketType;
 
 /**
  * @desc TODO
@@ -32,19 +38,33 @@ import java.net.SocketAddress;
 public class NettyAcceptor implements Acceptor{
 
 
-    // timer, 主要是做超时重连的, 但我认为是任意层面/协议 的重连都需要 timer 计时器
-    protected final HashedWheelTimer timer = new HashedWheelTimer(new DefaultThreadFactory("neptune.server.timer", true));
 
     private static final String IP_ADDRESS = SystemPropertyUtil.get("neptune.server.localAddress", NetUtil.LOCALHOST4.getHostAddress());
-    private static final int BOSS_THREAD_NUM = SystemPropertyUtil.getInt("neptune.server.bossThreadNum", 4);
+    // 监听 socket 数量, 仅在支持 SO_REUSEPORT 的 native 传输下生效, 每个监听 socket 独占一个 boss 线程
+    private static final int BOSS_THREAD_NUM = SystemPropertyUtil.getInt("neptune.server.bossThreadNum", 1);
+    private static final int BACKLOG = SystemPropertyUtil.getInt("neptune.server.backlog", 1024);
     private static final int WORKER_THREAD_NUM = SystemPropertyUtil.getInt("neptune.server.workerThreadNum", 16);
+    // 传输模式: nio / epoll / io_uring / kqueue / native, 当前平台不支持时退化为 nio
+    private static final String SOCKET_TYPE = SystemPropertyUtil.get("neptune.transport.socketType", "nio");
+    private static final boolean REUSE_PORT = SystemPropertyUtil.getBoolean("neptune.server.reusePort", true);
+    private static final boolean TCP_QUICKACK = SystemPropertyUtil.getBoolean("neptune.transport.tcpQuickAck", true);
+    // 出站缓冲水位, 超过高水位后 channel 不可写, AcceptorHandler 会暂停读取直到回落到低水位
+    private static final int WRITE_BUFFER_LOW_WATER_MARK = SystemPropertyUtil.getInt("neptune.server.writeBufferLowWaterMark", 512 * 1024);
+    private static final int WRITE_BUFFER_HIGH_WATER_MARK = SystemPropertyUtil.getInt("neptune.server.writeBufferHighWaterMark", 1024 * 1024);
+    // 每个连接最多同时处理的请求数(请求信用), 最大 65535; 默认 0 不开启流控:
+    // 开启后响应/心跳的 invokeId 高 16 位携带窗口, 只有所有客户端都用 ProtocolHeader.idOf 取 id 时才能开启
+    private static final int REQUEST_CREDITS = SystemPropertyUtil.getInt("neptune.server.requestCredits", 0);
+    // 读空闲超时, 客户端空闲时每 neptune.client.heartbeatIntervalSeconds 发一次心跳, 这里要留出足够的余量避免误杀健康连接
+    private static final int READER_IDLE_SECONDS = SystemPropertyUtil.getInt("neptune.server.readerIdleSeconds", 90);
 
     private final UnresolvedAddress address;
     private final SocketAddress socketAddress;
     private ProviderProcessor providerProcessor = null;
 
-    private final int nBosses;
+    private final int nListeners;
     private final int nWorkers;
+    private final SocketType socketType;
+    private final List<Channel> listeners = new ArrayList<>();
 
     private ServerBootstrap bootstrap;
     private EventLoopGroup boss;
@@ -55,14 +75,50 @@ public class NettyAcceptor implements Acceptor{
         this(BOSS_THREAD_NUM,WORKER_THREAD_NUM, port);
     }
 
+    public NettyAcceptor(int port, SocketType socketType) {
+        this(BOSS_THREAD_NUM, WORKER_THREAD_NUM, port, socketType);
+    }
+
+    public NettyAcceptor(int port, SocketType socketType, int nListeners) {
+        this(nListeners, WORKER_THREAD_NUM, port, socketType);
+    }
+
     public NettyAcceptor(int nBosses, int nWorkers, int port) {
+        this(nBosses, nWorkers, port, null);
+    }
+
+    /**
+     * @param nBosses 期望的监听 socket 数量; epoll/io_uring 且开启 SO_REUSEPORT 时会在同一端口上 bind 这么多个监听 socket,
+     *                由内核在它们之间做连接的负载均衡; 否则只会有一个监听 socket (多出来的 boss 线程不会被用到, 不会创建);
+     *                小于等于 0 时使用 -Dneptune.server.bossThreadNum
+     * @param socketType 传输模式, 为 null 时使用 -Dneptune.transport.socketType
+     */
+    public NettyAcceptor(int nBosses, int nWorkers, int port, SocketType socketType) {
         this.address = new UnresolvedSocketAddress(IP_ADDRESS, port);
         this.socketAddress = new InetSocketAddress(port);
-        this.nBosses = nBosses;
         this.nWorkers = nWorkers;
+        this.socketType = socketType == null
+                ? SocketChannelFactoryProvider.socketType(SOCKET_TYPE)
+                : SocketChannelFactoryProvider.socketType(socketType);
+        if (nBosses <= 0) {
+            nBosses = BOSS_THREAD_NUM;
+        }
+        this.nListeners = isReusePortSupported(this.socketType) ? Math.max(1, nBosses) : 1;
         init();
     }
 
+    public SocketType socketType() {
+        return socketType;
+    }
+
+    public int listenerCount() {
+        return nListeners;
+    }
+
+    private static boolean isReusePortSupported(SocketType socketType) {
+        return REUSE_PORT && (socketType == SocketType.NATIVE_EPOLL || socketType == SocketType.NATIVE_IO_URING);
+    }
+
     public void withProcessor(ProviderProcessor processor){
         this.providerProcessor = processor;
     }
@@ -79,7 +135,7 @@ public class NettyAcceptor implements Acceptor{
 
     @Override
     public void startAsync() throws Exception {
-        start(true);
+        start(false);
     }
 
     @Override
@@ -89,23 +145,39 @@ public class NettyAcceptor implements Acceptor{
 
             @Override
             protected void initChannel(Channel ch) throws Exception {
+                if (AdaptiveFlushHandler.ENABLED) {
+                    // 放在最靠近 head 的位置, 所有 flush 都经过它
+                    ch.pipeline().addLast(new AdaptiveFlushHandler());
+                }
                 ch.pipeline().addLast(
-                        new FlushConsolidationHandler(5, true), // 合并发送, 每5次之后再进行一次真正的网络发发送
-                        new IdleStateChecker(timer, 5, 5, 60),
+                        new IdleChecker(READER_IDLE_SECONDS, 0, 0),
                         new AcceptorIdleTriggerHandler(),
                         new ProtocolDecoder(),
                         new ProtocolEncoder(),
-                        new AcceptorHandler(providerProcessor)
+                        new AcceptorHandler(providerProcessor, REQUEST_CREDITS)
                 );
 
             }
         });
 
-        log.info("bind port to: " + address.port() + " success!!!");
-        ChannelFuture bindFuture = bootstrap.bind(localAddress()).sync();
+        // 每次 bind 都会从 boss group 中轮询出下一个 EventLoop, 所以每个监听 socket 都有自己独占的 boss 线程
+        for (int i = 0; i < nListeners; i++) {
+            ChannelFuture bindFuture = bootstrap.bind(localAddress()).sync();
+            listeners.add(bindFuture.channel());
+        }
+        log.info("bind port to: {} success, listeners: {}, socket type: {}", address.port(), nListeners, socketType);
 
-        // 直到关闭
-        bindFuture.channel().closeFuture().sync();
+        if (sync) {
+            sync();
+        }
+    }
+
+    @Override
+    public void sync() throws InterruptedException {
+        // 直到所有监听 socket 关闭
+        for (Channel listener : listeners) {
+            listener.closeFuture().sync();
+        }
     }
 
 
@@ -113,18 +185,49 @@ public class NettyAcceptor implements Acceptor{
     public void shutdownGracefully() {
         boss.shutdownGracefully();
         worker.shutdownGracefully();
+        if (providerProcessor != null) {
+            providerProcessor.shutdownGracefully();
+        }
     }
 
     protected void init() {
-        boss = new NioEventLoopGroup(nBosses, new DefaultThreadFactory("neptune-acceptor-boss", Thread.MAX_PRIORITY));
-        worker = new NioEventLoopGroup(nWorkers, new DefaultThreadFactory("neptune-acceptor-worker", Thread.MAX_PRIORITY));
+        boss = SocketChannelFactoryProvider.eventLoopGroup(socketType, nListeners,
+                new DefaultThreadFactory("neptune-acceptor-boss", Thread.MAX_PRIORITY));
+        worker = SocketChannelFactoryProvider.eventLoopGroup(socketType, nWorkers,
+                new DefaultThreadFactory("neptune-acceptor-worker", Thread.MAX_PRIORITY));
         bootstrap = new ServerBootstrap()
-                .channel(NioServerSocketChannel.class)
+                .channelFactory(SocketChannelFactoryProvider.acceptor(socketType))
                 .group(boss, worker)
-                .option(ChannelOption.SO_BACKLOG, 128)          // 设置TCP缓冲区
-                .childOption(ChannelOption.SO_KEEPALIVE, true); // 保持连接
-        ;
+                .option(ChannelOption.SO_BACKLOG, BACKLOG)      // 全连接队列长度, 每个监听 socket 各一个, 受 somaxconn 限制
+                .childOption(ChannelOption.SO_KEEPALIVE, true) // 保持连接
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK));
         // optional 优化 -- 针对 netty 的
+        setNativeOptions();
+    }
+
+    /**
+     * native 传输特有的参数, 只能设置到对应类型的 channel 上, nio 下设置会被忽略并打印 warn
+     */
+    private void setNativeOptions() {
+        switch (socketType) {
+            case NATIVE_EPOLL:
+                bootstrap
+                        .option(UnixChannelOption.SO_REUSEPORT, REUSE_PORT)
+                        // 边缘触发, 减少 epoll_wait 返回的就绪事件数量 (netty epoll 默认即 ET, 这里显式声明)
+                        .option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                        .childOption(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                        // 请求-响应模型下立即回 ACK, 避免 delayed ack 带来的尾延迟
+                        .childOption(EpollChannelOption.TCP_QUICKACK, TCP_QUICKACK);
+                break;
+            case NATIVE_IO_URING:
+                bootstrap
+                        .option(UnixChannelOption.SO_REUSEPORT, REUSE_PORT)
+                        .childOption(IOUringChannelOption.TCP_QUICKACK, TCP_QUICKACK);
+                break;
+            default:
+                break;
+        }
     }
 
 }
@@ -44,4 +44,24 @@ public interface Connection{
     Channel channel();
 
     void setChannel(Channel channel);
+
+    /**
+     * 这个连接上的在途请求, 断线重连之后仍然是同一张表
+     */
+    InFlightTable inFlight();
+
+    /**
+     * 是否可以继续发送请求: channel 可写(出站缓冲低于水位), 并且服务端授予的请求信用还没有用完
+     */
+    boolean isWritable();
+
+    /**
+     * 还没有写到 socket 的字节数, 包括出站队列与 netty 出站缓冲
+     */
+    long pendingOutboundBytes();
+
+    /**
+     * 等待连接变为可写 ({@link #isWritable()}), 超时或者连接断开时返回 false
+     */
+    boolean awaitWritable(long timeoutMillis) throws InterruptedException;
 }
@@ -1,67 +1,180 @@
 package org.neptune.transport.connection;
 
+import io.netty.channel.Channel;
+import io.netty.util.internal.SystemPropertyUtil;
 import org.neptune.common.UnresolvedAddress;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Supplier;
 
 /**
- * @desc TODO
- * 考虑批量connect?
+ * @desc 同一个地址的一组连接
+ * 1. 连接数可以配置(-Dneptune.transport.connectionsPerAddress), 新连接由连接器按轮询分配到不同的 event loop 上,
+ *    大响应不会阻塞同一地址上的其他请求, 流量也不会集中在一个 IO 线程;
+ * 2. {@link #next()} 优先选择可写且在途请求最少的连接;
+ * 3. 连接列表是一个不可变数组, 增删都是 CAS 整体替换, 读取不加锁.
  * @author tony
  * @createDate 2024/4/20 6:58 下午
  */
 public class ConnectionGroup {
 
-    public static final int CONNECT_NUM = 1;
+    public static final int CONNECT_NUM = Math.max(1, SystemPropertyUtil.getInt("neptune.transport.connectionsPerAddress", 1));
+
+    private static final Connection[] EMPTY = new Connection[0];
+
+    private static final AtomicReferenceFieldUpdater<ConnectionGroup, Connection[]> CONNECTIONS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ConnectionGroup.class, Connection[].class, "connections");
+    private static final AtomicIntegerFieldUpdater<ConnectionGroup> RESERVED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ConnectionGroup.class, "reserved");
+    private static final AtomicIntegerFieldUpdater<ConnectionGroup> INDEX_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ConnectionGroup.class, "index");
 
     private final UnresolvedAddress address;
-    private transient final CopyOnWriteArrayList<Connection> connections = new CopyOnWriteArrayList<>(); // 通过 volatile 来保障 读-写并发问题
-    final transient ReentrantLock lock = new ReentrantLock();
+    private final int capacity;
+    private transient volatile Connection[] connections = EMPTY;
+    private volatile int reserved; // 已经加入或者正在创建的连接数, 防止并发补齐时超出容量
+    private volatile int index;    // 在途请求数相同时轮换起点
+
+    public ConnectionGroup(UnresolvedAddress address) {
+        this(address, CONNECT_NUM);
+    }
 
-    public ConnectionGroup(UnresolvedAddress address){
+    public ConnectionGroup(UnresolvedAddress address, int capacity) {
         this.address = address;
+        this.capacity = Math.max(1, capacity);
     }
-    public  void addConnect(Connection connection){
-        lock.lock();
-        connections.add(connection);
-        lock.unlock();
+
+    /**
+     * 直接加入一个连接, 不受容量限制
+     */
+    public void addConnect(Connection connection) {
+        RESERVED_UPDATER.incrementAndGet(this);
+        append(connection);
     }
 
-    public void addConnect(Supplier<Connection> connectionSupplier){
-        if(!isFull()){
-            synchronized (connections){
-                if(!isFull()){
-                    Connection connection = connectionSupplier.get();
-                    connections.add(connection);
-                }
+    /**
+     * 用 connectionSupplier 创建连接, 直到补齐容量; 已经满了时什么都不做
+     */
+    public void addConnect(Supplier<Connection> connectionSupplier) {
+        for (;;) {
+            int r = reserved;
+            if (r >= capacity) {
+                return;
+            }
+            if (!RESERVED_UPDATER.compareAndSet(this, r, r + 1)) {
+                continue;
+            }
+            Connection connection;
+            try {
+                connection = connectionSupplier.get();
+            } catch (Throwable t) {
+                RESERVED_UPDATER.decrementAndGet(this);
+                throw t;
             }
+            append(connection);
         }
     }
 
-    public List<Connection> connections(){
-        return connections;
+    public boolean removeConnect(Connection connection) {
+        for (;;) {
+            Connection[] current = connections;
+            int i = indexOf(current, connection);
+            if (i < 0) {
+                return false;
+            }
+            Connection[] updated = new Connection[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, updated.length - i);
+            if (CONNECTIONS_UPDATER.compareAndSet(this, current, updated)) {
+                RESERVED_UPDATER.decrementAndGet(this);
+                return true;
+            }
+        }
     }
 
+    private void append(Connection connection) {
+        for (;;) {
+            Connection[] current = connections;
+            Connection[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = connection;
+            if (CONNECTIONS_UPDATER.compareAndSet(this, current, updated)) {
+                return;
+            }
+        }
+    }
 
-    public UnresolvedAddress address(){
+    private static int indexOf(Connection[] connections, Connection connection) {
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] == connection) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public List<Connection> connections() {
+        return Arrays.asList(connections);
+    }
+
+    public UnresolvedAddress address() {
         return address;
     }
 
-    public boolean isAvailable(){
-        return !connections.isEmpty();
+    public int capacity() {
+        return capacity;
     }
 
-    public boolean isFull(){
-        return connections.size() == CONNECT_NUM;
+    public boolean isAvailable() {
+        return connections.length != 0;
     }
 
-    public Connection next(){
-        if(!isAvailable()){
-            throw new RuntimeException("no connection availabele");
+    public boolean isFull() {
+        return reserved >= capacity;
+    }
+
+    /**
+     * 选择一个连接: 可写的优先, 其次在途请求最少; 都相同时从轮换的起点开始, 把请求分散到各个连接
+     *
+     * @return 选中的连接; 分组为空, 或者其中的连接都还没有连上/已经断开时返回 null, 由调用方决定失败还是换一个地址
+     */
+    public Connection next() {
+        Connection[] current = connections;
+        int n = current.length;
+        if (n == 0) {
+            return null;
         }
-        return connections.get(0);
-    };
+        if (n == 1) {
+            return isActive(current[0]) ? current[0] : null;
+        }
+        int start = (INDEX_UPDATER.getAndIncrement(this) & Integer.MAX_VALUE) % n;
+        Connection best = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (int k = 0; k < n; k++) {
+            Connection connection = current[(start + k) % n];
+            if (!isActive(connection)) {
+                continue;
+            }
+            int score = connection.inFlight().size();
+            if (!connection.isWritable()) {
+                // 出站缓冲已经超过高水位或者请求信用已经用完, 除非其他连接都不可用
+                score = score + (Integer.MAX_VALUE >> 1);
+            }
+            if (score < bestScore) {
+                best = connection;
+                bestScore = score;
+                if (score == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean isActive(Connection connection) {
+        Channel channel = connection.channel();
+        return channel != null && channel.isActive();
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.connection;
+
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * org.neptune.transport.connection - InFlightTable
+ * 单个连接上的在途请求表, invokeId -> PendingRequest
+ * <p>
+ * 1. 使用 netty 的 LongObjectHashMap (开放寻址 + 原始 long key), 没有 Long 装箱与链表节点的分配;
+ * 2. 每个连接一张表, 响应在 event loop 上完成时只会与同一连接上的发送方竞争这把锁;
+ * 3. 连接断开时可以一次性终止这个连接上所有的在途请求, 不需要等待超时.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:10
+ */
+public final class InFlightTable {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    private final LongObjectHashMap<PendingRequest> table;
+    private volatile int size; // 锁内维护, 读取不加锁, 供连接选择使用
+
+    public InFlightTable() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public InFlightTable(int initialCapacity) {
+        this.table = new LongObjectHashMap<>(initialCapacity);
+    }
+
+    public void put(long invokeId, PendingRequest request) {
+        synchronized (this) {
+            table.put(invokeId, request);
+            size = table.size();
+        }
+    }
+
+    public PendingRequest remove(long invokeId) {
+        synchronized (this) {
+            PendingRequest removed = table.remove(invokeId);
+            size = table.size();
+            return removed;
+        }
+    }
+
+    /**
+     * 只有表中登记的仍是 expected 时才移除, 用于超时等可能与响应并发的场景
+     */
+    public boolean remove(long invokeId, PendingRequest expected) {
+        synchronized (this) {
+            if (table.get(invokeId) != expected) {
+                return false;
+            }
+            table.remove(invokeId);
+            size = table.size();
+            return true;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 终止当前表中的所有请求, 回调在锁外执行
+     */
+    public void abortAll(Throwable cause) {
+        List<PendingRequest> aborted;
+        synchronized (this) {
+            if (table.isEmpty()) {
+                return;
+            }
+            aborted = new ArrayList<>(table.size());
+            for (LongObjectMap.PrimitiveEntry<PendingRequest> entry : table.entries()) {
+                aborted.add(entry.value());
+            }
+            table.clear();
+            size = 0;
+        }
+        for (PendingRequest request : aborted) {
+            request.abort(cause);
+        }
+    }
+}
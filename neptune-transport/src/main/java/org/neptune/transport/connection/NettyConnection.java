@@ -22,6 +22,7 @@ import io.netty.util.AttributeKey;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
 
 /**
  * org.neptune.rpc.transportLayer - NettyConnection
@@ -39,9 +40,17 @@ public class NettyConnection implements Connection {
 
     private ConnectFuture connectFuture;
 
+    private final InFlightTable inFlight = new InFlightTable();
+
     private boolean reconnect;
-    private Channel channel;
-    private boolean attacked = false;
+    private volatile Channel channel;
+
+    // 等待可写的调用方, 没有等待者时可写状态变化不需要加锁通知
+    private final Object writableLock = new Object();
+    private volatile int writableWaiters;
+
+    // 服务端授予的请求信用窗口, 即最多允许的在途请求数, 0 表示服务端没有开启流控
+    private volatile int creditWindow;
 
     public NettyConnection(ChannelFuture future, SocketAddress remoteAddress) {
         this(future, remoteAddress, true);
@@ -78,23 +87,26 @@ public class NettyConnection implements Connection {
 
     private void attackTo(Channel channel) {
         log.info("connect succeed");
-        // 考虑这个 attack是在两个场景 1. 首次连接 2.重新连接
-        if (!attacked) {
-            attacked = true;
-            this.channel = channel;
-            // 双向管理 -- 方便在 channel handler 阶段反向
-            //这里考虑GC 是否有压力的问题
-            channel.attr(NETTY_CONNECTION_KEY).set(this);
-        } else {
-            // todo: log this error of not needed?
-        }
+        // 考虑这个 attack是在两个场景 1. 首次连接 2.重新连接 (由看门狗在新 channel active 时调用 setChannel)
+        this.channel = channel;
+        // 双向管理 -- 方便在 channel handler 阶段反向
+        //这里考虑GC 是否有压力的问题
+        channel.attr(NETTY_CONNECTION_KEY).set(this);
+    }
+
+    /**
+     * 通过 channel 反查所属的连接, 没有绑定时返回 null
+     */
+    public static NettyConnection of(Channel channel) {
+        return channel.attr(NETTY_CONNECTION_KEY).get();
     }
 
     @Override
     public void disconnect() {
         // todo: disconnect
-        attacked = false;
-        connectFuture.onConnectClosed();
+        if (connectFuture != null) {
+            connectFuture.onConnectClosed();
+        }
     }
 
     @Override
@@ -109,6 +121,83 @@ public class NettyConnection implements Connection {
 
     @Override
     public void setChannel(Channel channel) {
-        this.channel = channel;
+        if (channel != this.channel) {
+            attackTo(channel);
+        }
+    }
+
+    @Override
+    public InFlightTable inFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public boolean isWritable() {
+        Channel ch = channel;
+        if (ch == null || !ch.isWritable()) {
+            return false;
+        }
+        int window = creditWindow;
+        return window == 0 || inFlight.size() < window;
+    }
+
+    /**
+     * 收到服务端授予的请求信用 (由解码器在 IO 线程调用)
+     */
+    public void grantCredits(int window) {
+        if (creditWindow != window) {
+            int previous = creditWindow;
+            creditWindow = window;
+            if (window > previous) {
+                notifyWritabilityChanged();
+            }
+        }
+    }
+
+    public int creditWindow() {
+        return creditWindow;
+    }
+
+    @Override
+    public long pendingOutboundBytes() {
+        Channel ch = channel;
+        return ch == null ? 0 : OutboundQueue.pendingBytes(ch);
+    }
+
+    @Override
+    public boolean awaitWritable(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (writableLock) {
+            writableWaiters++;
+            try {
+                for (;;) {
+                    Channel ch = channel;
+                    if (ch == null || !ch.isActive()) {
+                        return false;
+                    }
+                    if (isWritable()) {
+                        return true;
+                    }
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    writableLock.wait(remaining);
+                }
+            } finally {
+                writableWaiters--;
+            }
+        }
+    }
+
+    /**
+     * 可写状态变化、归还请求信用或者连接断开时由 IO 线程调用, 唤醒 {@link #awaitWritable(long)} 的等待者
+     */
+    public void notifyWritabilityChanged() {
+        if (writableWaiters > 0) {
+            synchronized (writableLock) {
+                writableLock.notifyAll();
+            }
+        }
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import org.neptune.transport.PayloadHolder;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * org.neptune.transport.connection - OutboundQueue
+ * 每个 channel 一个出站队列(MPSC), 业务线程只负责入队, 由一个 event loop 任务批量写出并只 flush 一次:
+ * <p>
+ * 1. 直接 writeAndFlush 时每次调用都是一个独立的 event loop 任务, 一次 flush, 通常也是一次系统调用;
+ * 2. 队列从空变为非空时才提交一次排空任务, 排空期间到达的消息会搭上同一批;
+ * 3. 一批的字节数与排空耗时都有上限, 达到上限时先 flush, 再重新提交任务, 让出 event loop 给读事件;
+ * 4. 队列中的字节数同样受 channel 的写缓冲水位约束: 超过高水位时通过 user defined writability 把 channel 置为不可写,
+ *    排空到低水位以下再恢复, 调用方看到的 {@link Channel#isWritable()} 包含了还没进入 netty 出站缓冲的部分.
+ * <p>
+ * 通过 -Dneptune.transport.batchWrite=false 可以退化为直接 writeAndFlush
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 21:20
+ */
+public final class OutboundQueue implements Runnable {
+
+    private static final boolean BATCH_WRITE = SystemPropertyUtil.getBoolean("neptune.transport.batchWrite", true);
+    private static final int DEFAULT_MAX_BATCH_BYTES = SystemPropertyUtil.getInt("neptune.transport.batchWrite.maxBytes", 64 * 1024);
+    private static final long DEFAULT_MAX_BATCH_NANOS = TimeUnit.MICROSECONDS.toNanos(
+            SystemPropertyUtil.getLong("neptune.transport.batchWrite.maxMicros", 100));
+    // 每排空这么多条消息检查一次耗时, 避免每条消息都读时钟
+    private static final int CLOCK_CHECK_INTERVAL = 16;
+
+    private static final AttributeKey<OutboundQueue> OUTBOUND_QUEUE_KEY = AttributeKey.valueOf("outbound_queue");
+    // netty 自身的可写状态占用 bit 0, user defined writability 的下标从 1 开始
+    private static final int WRITABILITY_INDEX = 1;
+
+    private static final AtomicIntegerFieldUpdater<OutboundQueue> SCHEDULED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(OutboundQueue.class, "scheduled");
+    private static final AtomicLongFieldUpdater<OutboundQueue> PENDING_BYTES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(OutboundQueue.class, "pendingBytes");
+    private static final AtomicIntegerFieldUpdater<OutboundQueue> OVER_LIMIT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(OutboundQueue.class, "overLimit");
+
+    private final Channel channel;
+    private final Queue<PendingWrite> queue = PlatformDependent.newMpscQueue();
+    private final int maxBatchBytes;
+    private final long maxBatchNanos;
+
+    private volatile int scheduled;
+    private volatile long pendingBytes; // 已经入队还没有交给 channel 的字节数
+    private volatile int overLimit;     // 是否因为队列超过高水位把 channel 置为了不可写
+
+    OutboundQueue(Channel channel, int maxBatchBytes, long maxBatchNanos) {
+        this.channel = channel;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxBatchNanos = maxBatchNanos;
+    }
+
+    /**
+     * 写出一条消息, 等价于 channel.writeAndFlush(msg), 可以在任意线程调用, 同一线程写入的消息保持顺序
+     */
+    public static ChannelFuture write(Channel channel, Object msg) {
+        if (!BATCH_WRITE) {
+            return channel.writeAndFlush(msg);
+        }
+        return of(channel).enqueue(msg);
+    }
+
+    /**
+     * 这个 channel 上还没有写到 socket 的字节数: 队列中的 + netty 出站缓冲中的
+     */
+    public static long pendingBytes(Channel channel) {
+        OutboundQueue queue = channel.attr(OUTBOUND_QUEUE_KEY).get();
+        long bytes = queue == null ? 0 : queue.pendingBytes;
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer == null ? bytes : bytes + buffer.totalPendingWriteBytes();
+    }
+
+    static OutboundQueue of(Channel channel) {
+        OutboundQueue queue = channel.attr(OUTBOUND_QUEUE_KEY).get();
+        if (queue == null) {
+            OutboundQueue created = new OutboundQueue(channel, DEFAULT_MAX_BATCH_BYTES, DEFAULT_MAX_BATCH_NANOS);
+            queue = channel.attr(OUTBOUND_QUEUE_KEY).setIfAbsent(created);
+            if (queue == null) {
+                queue = created;
+            }
+        }
+        return queue;
+    }
+
+    ChannelFuture enqueue(Object msg) {
+        ChannelPromise promise = channel.newPromise();
+        int size = sizeOf(msg);
+        // 先计数再入队, 保证排空任务结束时检查水位看到的计数已经包含这条消息
+        long pending = PENDING_BYTES_UPDATER.addAndGet(this, size);
+        if (pending > channel.config().getWriteBufferHighWaterMark() && overLimit == 0) {
+            setUnwritable();
+        }
+        queue.offer(new PendingWrite(msg, promise, size));
+        scheduleDrain();
+        return promise;
+    }
+
+    long pendingBytes() {
+        return pendingBytes;
+    }
+
+    private void setUnwritable() {
+        if (OVER_LIMIT_UPDATER.compareAndSet(this, 0, 1)) {
+            ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+            if (buffer != null) {
+                buffer.setUserDefinedWritability(WRITABILITY_INDEX, false);
+            }
+        }
+    }
+
+    private void setWritableIfBelowLowWaterMark() {
+        if (overLimit == 1 && pendingBytes < channel.config().getWriteBufferLowWaterMark()
+                && OVER_LIMIT_UPDATER.compareAndSet(this, 1, 0)) {
+            ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+            if (buffer != null) {
+                buffer.setUserDefinedWritability(WRITABILITY_INDEX, true);
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+        if (scheduled == 0 && SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+            try {
+                channel.eventLoop().execute(this);
+            } catch (Throwable t) {
+                // event loop 已经关闭, 不会再有人排空
+                scheduled = 0;
+                failAll(t);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + maxBatchNanos;
+        int bytes = 0;
+        int count = 0;
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            bytes += write.size;
+            channel.write(write.msg, write.promise);
+            count++;
+            if (bytes >= maxBatchBytes
+                    || (count % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0)) {
+                break;
+            }
+        }
+        if (count > 0) {
+            channel.flush();
+            PENDING_BYTES_UPDATER.addAndGet(this, -bytes);
+            setWritableIfBelowLowWaterMark();
+        }
+
+        scheduled = 0;
+        // 达到上限时还有剩余, 或者清除标记前又有消息入队, 都需要再排空一次
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void failAll(Throwable cause) {
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            PENDING_BYTES_UPDATER.addAndGet(this, -write.size);
+            ReferenceCountUtil.release(write.msg);
+            write.promise.tryFailure(cause);
+        }
+    }
+
+    private static int sizeOf(Object msg) {
+        ByteBuf buf = null;
+        if (msg instanceof ByteBuf) {
+            buf = (ByteBuf) msg;
+        } else if (msg instanceof PayloadHolder) {
+            buf = ((PayloadHolder) msg).getByteBuf();
+        }
+        return buf == null ? 0 : buf.readableBytes();
+    }
+
+    private static final class PendingWrite {
+
+        final Object msg;
+        final ChannelPromise promise;
+        final int size;
+
+        PendingWrite(Object msg, ChannelPromise promise, int size) {
+            this.msg = msg;
+            this.promise = promise;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.connection;
+
+/**
+ * org.neptune.transport.connection - PendingRequest
+ * 已经发出, 还在等待响应的请求; 由上层(rpc)的 future 实现, 传输层只负责在连接断开时统一终止
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 15:10
+ */
+public interface PendingRequest {
+
+    /**
+     * 连接已断开等原因导致不会再有响应, 以异常结束
+     */
+    void abort(Throwable cause);
+}
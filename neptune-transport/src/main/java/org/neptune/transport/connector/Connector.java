@@ -16,6 +16,7 @@
 package org.neptune.transport.connector;
 
 
+import io.netty.util.Timer;
 import org.neptune.transport.connection.Connection;
 import org.neptune.common.UnresolvedAddress;
 import org.neptune.transport.connection.ConnectionGroup;
@@ -34,6 +35,11 @@ public interface Connector {
 
     ConsumerProcessor process();
 
+    /**
+     * 连接器共享的时间轮, 上层可以用来做调用超时等定时任务, 不要在任务里做阻塞操作
+     */
+    Timer timer();
+
     void shutdownGracefully();
 
     /**
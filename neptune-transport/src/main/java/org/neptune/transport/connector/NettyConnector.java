@@ -17,18 +17,22 @@ package org.neptune.transport.connector;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.internal.SystemPropertyUtil;
 import org.neptune.common.UnresolvedAddress;
 import org.neptune.transport.SocketChannelFactoryProvider;
 import org.neptune.transport.connection.Connection;
 import org.neptune.transport.connection.ConnectionGroup;
 import org.neptune.transport.connection.NettyConnection;
+import org.neptune.transport.handler.AdaptiveFlushHandler;
 import org.neptune.transport.handler.ConnectionWatchDog;
 import org.neptune.transport.handler.ConnectorIdleTriggerHandler;
-import org.neptune.transport.handler.IdleStateChecker;
+import org.neptune.transport.handler.IdleChecker;
 import org.neptune.transport.handler.ResponseHandler;
 import org.neptune.transport.processor.ConsumerProcessor;
 import org.neptune.transport.protocol.ProtocolDecoder;
@@ -48,9 +52,9 @@ import static org.neptune.transport.SocketChannelFactoryProvider.SocketType;
  * 2.
  *
  * <p>
- * ProtocolEncoder -> IdleStateChecker                                                                           (出方向)
+ * ProtocolEncoder -> IdleChecker                                                                                (出方向)
  * Client                                                                                                                                   server
- * ResponseHandler <-  ProtocolDecoder  <-  ConnectorIdleStateTrigger <- IdleStateChecker <- ConnectionWatchdog  (入方向)
+ * ResponseHandler <-  ProtocolDecoder  <-  ConnectorIdleStateTrigger <- IdleChecker      <- ConnectionWatchdog  (入方向)
  *
  * @author tony-is-coding
  * @date 2021/12/16 1:13
@@ -67,16 +71,34 @@ public class NettyConnector implements Connector {
 
     private ConsumerProcessor processor;
     private static final int DEFAULT_CONNECTOR_WORKER_NUM = 4;
+    // 传输模式: nio / epoll / io_uring / kqueue / native, 当前平台不支持时退化为 nio
+    private static final String SOCKET_TYPE = SystemPropertyUtil.get("neptune.transport.socketType", "nio");
+    private static final boolean TCP_QUICKACK = SystemPropertyUtil.getBoolean("neptune.transport.tcpQuickAck", true);
+    // 出站缓冲水位, 超过高水位后 channel 不可写, 调用方换连接/等待/快速失败, 避免对端卡住时出站缓冲无限增长
+    private static final int WRITE_BUFFER_LOW_WATER_MARK = SystemPropertyUtil.getInt("neptune.client.writeBufferLowWaterMark", 512 * 1024);
+    private static final int WRITE_BUFFER_HIGH_WATER_MARK = SystemPropertyUtil.getInt("neptune.client.writeBufferHighWaterMark", 1024 * 1024);
+    // 心跳: 读空闲这么久之后发送 ping, 连续这么多个 ping 没有回应则断开重连; 服务端的读空闲超时需要大于 间隔 * (次数 + 1)
+    private static final int HEARTBEAT_INTERVAL_SECONDS = SystemPropertyUtil.getInt("neptune.client.heartbeatIntervalSeconds", 15);
+    private static final int MAX_MISSED_HEARTBEATS = SystemPropertyUtil.getInt("neptune.client.maxMissedHeartbeats", 3);
 
     private final ConcurrentHashMap<UnresolvedAddress, ConnectionGroup> serviceConnectGroup = new ConcurrentHashMap<>(16);
 
     public NettyConnector(ConsumerProcessor processor) {
-        this(DEFAULT_CONNECTOR_WORKER_NUM, false);
+        this(DEFAULT_CONNECTOR_WORKER_NUM, SocketChannelFactoryProvider.socketType(SOCKET_TYPE));
         this.processor =  processor;
     }
 
+    public NettyConnector(ConsumerProcessor processor, SocketType socketType) {
+        this(DEFAULT_CONNECTOR_WORKER_NUM, socketType);
+        this.processor = processor;
+    }
+
     protected NettyConnector(int workerNum, boolean isNative) {
-        this.socketType = SocketChannelFactoryProvider.socketType(isNative);
+        this(workerNum, SocketChannelFactoryProvider.socketType(isNative));
+    }
+
+    protected NettyConnector(int workerNum, SocketType socketType) {
+        this.socketType = SocketChannelFactoryProvider.socketType(socketType);
         workers = createEventLoopGroup(workerNum, new DefaultThreadFactory("rpc.connect"));
         bootstrap = new Bootstrap().group(workers);
         doInit();
@@ -92,7 +114,7 @@ public class NettyConnector implements Connector {
 
     @Override
     public Connection connect(UnresolvedAddress remoteSocketAddress, boolean async) {
-        return connect0(remoteSocketAddress, true);
+        return connect0(remoteSocketAddress, async);
     }
 
     @Override
@@ -100,6 +122,11 @@ public class NettyConnector implements Connector {
         return processor;
     }
 
+    @Override
+    public Timer timer() {
+        return timer;
+    }
+
     public Connection connect0(final UnresolvedAddress address, boolean async) {
         setOptions();
 
@@ -110,16 +137,24 @@ public class NettyConnector implements Connector {
         final ConnectionWatchDog watchDog = new ConnectionWatchDog(bs, timer, socketAddress) {
             @Override
             public ChannelHandler[] handlers() {
-                return new ChannelHandler[]{
+                ChannelHandler[] handlers = new ChannelHandler[]{
                         // 入站看门狗
                         this, // in-1
-                        // 这里只需要进行 读/写 超时检查
-                        new IdleStateChecker(timer, 0, 30, 0), // in - 2
-                        new ConnectorIdleTriggerHandler(), // in - 3
+                        // 只需要读空闲检查: 不开写空闲, 写路径上就不用为每次 write 挂 listener
+                        new IdleChecker(HEARTBEAT_INTERVAL_SECONDS, 0, 0), // in - 2
+                        new ConnectorIdleTriggerHandler(MAX_MISSED_HEARTBEATS), // in - 3
                         new ProtocolEncoder(), // out - 1
                         new ProtocolDecoder(), // in - 4
                         new ResponseHandler(processor) // in - 5
                 };
+                if (!AdaptiveFlushHandler.ENABLED) {
+                    return handlers;
+                }
+                // flush 合并放在最靠近 head 的位置, 重连时也会重新创建
+                ChannelHandler[] withFlush = new ChannelHandler[handlers.length + 1];
+                withFlush[0] = new AdaptiveFlushHandler();
+                System.arraycopy(handlers, 0, withFlush, 1, handlers.length);
+                return withFlush;
             }
         };
         ChannelFuture future;
@@ -137,16 +172,18 @@ public class NettyConnector implements Connector {
                 future.sync();
             }
         } catch (Throwable t) {
-            throw new RuntimeException("connect error");
+            throw new RuntimeException("connect error: " + address, t);
         }
 
         // 这里要将 channel 包装成一个Connection, 目的是为了实现连接的异步创建, 和一些自定义的 观测监控行为
-        return new NettyConnection(future, socketAddress) {
+        NettyConnection connection = new NettyConnection(future, socketAddress) {
             @Override
             public void setReconnect(boolean reconnect) {
                 watchDog.setReconnect(reconnect); // 看门狗代理 reconnect
             }
         };
+        watchDog.setConnection(connection);
+        return connection;
     }
 
     @Override
@@ -181,17 +218,14 @@ public class NettyConnector implements Connector {
      */
     private void doInit() {
         // 初始化设置 channelFactory
-        bootstrap().channelFactory(SocketChannelFactoryProvider.connector(socketType()));
+        bootstrap().channelFactory(SocketChannelFactoryProvider.connector(socketType()))
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK));
     }
 
     private EventLoopGroup createEventLoopGroup(int nThreads, ThreadFactory factory) {
-        /*
-        TODO: 基于平台的自适应
-            default - NIO
-            Linux   - epoll
-            MacOS   - Kqueue
-        * */
-        return new NioEventLoopGroup(nThreads, factory);
+        // EventLoopGroup 与 channelFactory 由同一个 socketType 决定
+        return SocketChannelFactoryProvider.eventLoopGroup(socketType, nThreads, factory);
     }
 
     /*
@@ -199,6 +233,18 @@ public class NettyConnector implements Connector {
      */
     private void setOptions() {
         // TODO 公共配置抽象拓展
+        switch (socketType) {
+            case NATIVE_EPOLL:
+                bootstrap()
+                        .option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                        .option(EpollChannelOption.TCP_QUICKACK, TCP_QUICKACK);
+                break;
+            case NATIVE_IO_URING:
+                bootstrap().option(IOUringChannelOption.TCP_QUICKACK, TCP_QUICKACK);
+                break;
+            default:
+                break;
+        }
     }
 
 }
@@ -17,12 +17,18 @@ package org.neptune.transport.handler;
 
 import com.alibaba.fastjson2.JSON;
 import io.netty.channel.*;
+import io.netty.handler.codec.DecoderException;
 import io.netty.util.ReferenceCountUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.neptune.transport.RequestPayload;
 import org.neptune.transport.Status;
 import org.neptune.transport.processor.ProviderProcessor;
+import org.neptune.transport.protocol.Heartbeats;
+import org.neptune.transport.protocol.ProtocolEncoder;
+import org.neptune.transport.protocol.ProtocolHeader;
+import org.neptune.transport.protocol.RequestCredits;
 
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -38,9 +44,16 @@ public class AcceptorHandler extends ChannelInboundHandlerAdapter {
     private static final AtomicInteger channelCounter = new AtomicInteger(0);
 
     private ProviderProcessor processor;
+    // 每个连接授予的请求信用, 0 表示不开启流控
+    private final int requestCredits;
 
     public AcceptorHandler(ProviderProcessor processor) {
+        this(processor, 0);
+    }
+
+    public AcceptorHandler(ProviderProcessor processor, int requestCredits) {
         this.processor = processor;
+        this.requestCredits = requestCredits;
     }
 
     @Override
@@ -48,6 +61,10 @@ public class AcceptorHandler extends ChannelInboundHandlerAdapter {
         Channel channel = ctx.channel();
 
         if (msg instanceof RequestPayload) {
+            RequestCredits credits = RequestCredits.of(channel);
+            if (credits != null) {
+                credits.acquire(channel);
+            }
             try {
                 processor.handleRequest(channel, (RequestPayload) msg);
             } catch (Throwable t) {
@@ -61,9 +78,24 @@ public class AcceptorHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         int count = channelCounter.incrementAndGet();
+        if (requestCredits > 0) {
+            // 连接建立后立即通过一个心跳 ack 帧授予初始信用, 之后随每个响应捎带
+            RequestCredits credits = RequestCredits.attach(ctx.channel(), requestCredits);
+            ctx.writeAndFlush(ProtocolEncoder.encodeHeartbeat(ctx.alloc(), Heartbeats.ACK, ProtocolHeader.withCredits(0, credits.window())));
+        }
         super.channelActive(ctx);
     }
 
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt == Heartbeats.PING_EVENT) {
+            // 应答客户端心跳, 共享的预编码帧, 不关心写出结果
+            ctx.writeAndFlush(Heartbeats.ack(), ctx.voidPromise());
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         int count = channelCounter.getAndDecrement();
@@ -77,21 +109,29 @@ public class AcceptorHandler extends ChannelInboundHandlerAdapter {
 
         // 高水位线: ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK
         // 低水位线: ChannelOption.WRITE_BUFFER_LOW_WATER_MARK
+        // 开启流控时, 请求信用用完同样暂停读取, 两个条件都满足才恢复
+        RequestCredits credits = RequestCredits.of(ch);
         if (!ch.isWritable()) {
             config.setAutoRead(false);
         } else {
-            config.setAutoRead(true);
+            config.setAutoRead(credits == null || credits.hasCredit());
         }
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         Channel ch = ctx.channel();
-        if(cause.getStackTrace().length != 0){
-            cause.printStackTrace();
-            log.info("异常发生, 断开连接处理先");
-            ctx.channel().closeFuture().sync();
+        if (cause instanceof DecoderException) {
+            // 帧格式非法(magic 错误/超长等), 连接内后续字节已无法对齐, 只能断开
+            log.warn("illegal frame from {}, close the channel: {}", ch.remoteAddress(), cause.getMessage());
+        } else if (cause instanceof IOException) {
+            // 对端 reset 等网络异常, 大量客户端同时断开时不打印堆栈
+            log.info("io exception on {}, close the channel: {}", ch, cause.getMessage());
+        } else {
+            log.error("unexpected exception on {}, close the channel", ch, cause);
         }
+        // 不能在 IO 线程上 sync 等待 closeFuture, 直接关闭即可
+        ch.close();
     }
 
     public ProviderProcessor processor() {
@@ -19,21 +19,25 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
-import io.netty.util.Signal;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * org.neptune.rpc.transportLayer - AcceptorIdleTriggerHandler
+ * <p>
+ * 服务端读空闲: 客户端在空闲时会定期发送心跳, 读空闲超时(应该设置为客户端心跳间隔的数倍)说明客户端已经不在了, 直接关闭连接
  *
  * @author tony-is-coding
  * @date 2021/12/24 18:30
  */
+@Slf4j
 public class AcceptorIdleTriggerHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof IdleStateEvent) {
             IdleState state = ((IdleStateEvent) evt).state();
             if (state == IdleState.READER_IDLE) {
-                throw Signal.valueOf("客户端连接超时...");
+                log.info("no heartbeat from {}, close the idle channel", ctx.channel().remoteAddress());
+                ctx.close();
             }
         } else {
             super.userEventTriggered(ctx, evt);
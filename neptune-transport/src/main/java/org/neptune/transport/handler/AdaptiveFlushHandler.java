@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.handler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.internal.SystemPropertyUtil;
+import org.neptune.transport.PayloadHolder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * org.neptune.transport.handler - AdaptiveFlushHandler
+ * 自适应的 flush 合并, 替代固定合并 5 次的 FlushConsolidationHandler:
+ * <p>
+ * 1. 读事件处理期间产生的 flush 全部推迟到 channelReadComplete, 一个读周期只 flush 一次;
+ * 2. 其余时间合并 batchSize 次 flush, 同时提交一个 event loop 任务, 当前已排队的任务执行完(即空闲)就把剩下的立即 flush, 不会无限等待;
+ * 3. batchSize 随负载调整: 两次空闲之间的 flush 次数超过目标说明负载高, 扩大目标; 空闲时还没攒够说明负载跟不上, 向实际次数收敛;
+ * 4. 待发送字节数超过上限时不论次数立即 flush, 控制大消息的延迟与内存.
+ * <p>
+ * 低负载时 batchSize 会回落到 1, 此时每次 flush 都立即执行, 不增加任何延迟.
+ * 当前的 batchSize 与全局的平均合并次数都可以读取, 用于观察延迟与吞吐的取舍.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:00
+ */
+public class AdaptiveFlushHandler extends ChannelDuplexHandler {
+
+    public static final boolean ENABLED = SystemPropertyUtil.getBoolean("neptune.transport.adaptiveFlush", true);
+    private static final int DEFAULT_MAX_BATCH = SystemPropertyUtil.getInt("neptune.transport.adaptiveFlush.maxBatch", 64);
+    private static final int DEFAULT_MAX_PENDING_BYTES = SystemPropertyUtil.getInt("neptune.transport.adaptiveFlush.maxPendingBytes", 64 * 1024);
+
+    // 所有连接的累计值: 请求 flush 的次数 / 真正 flush 的次数 = 平均合并次数
+    private static final LongAdder REQUESTED_FLUSHES = new LongAdder();
+    private static final LongAdder ACTUAL_FLUSHES = new LongAdder();
+
+    private final int maxBatch;
+    private final int maxPendingBytes;
+
+    private ChannelHandlerContext ctx;
+    private final Runnable flushTask = this::idleFlush;
+
+    // 以下字段只在 event loop 中访问
+    private int batchSize = 1;
+    private int pendingFlushes;
+    private int burstFlushes; // 上一次空闲之后请求 flush 的次数
+    private long pendingBytes;
+    private boolean readInProgress;
+    private boolean flushScheduled;
+
+    public AdaptiveFlushHandler() {
+        this(DEFAULT_MAX_BATCH, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    public AdaptiveFlushHandler(int maxBatch, int maxPendingBytes) {
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxPendingBytes = Math.max(1, maxPendingBytes);
+    }
+
+    /**
+     * 当前合并的目标次数
+     */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public static long requestedFlushes() {
+        return REQUESTED_FLUSHES.sum();
+    }
+
+    public static long actualFlushes() {
+        return ACTUAL_FLUSHES.sum();
+    }
+
+    /**
+     * 所有连接的平均合并次数, 1 表示没有合并
+     */
+    public static double averageBatchSize() {
+        long actual = ACTUAL_FLUSHES.sum();
+        return actual == 0 ? 1.0 : (double) REQUESTED_FLUSHES.sum() / actual;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        pendingBytes += sizeOf(msg);
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        REQUESTED_FLUSHES.increment();
+        pendingFlushes++;
+        burstFlushes++;
+        if (pendingBytes >= maxPendingBytes) {
+            flushNow(ctx);
+        } else if (readInProgress) {
+            // 等 channelReadComplete
+        } else if (pendingFlushes >= batchSize) {
+            if (burstFlushes > batchSize && batchSize < maxBatch) {
+                // 空闲之前已经不止一批了, 扩大目标
+                batchSize = Math.min(maxBatch, batchSize + Math.max(1, batchSize >>> 1));
+            }
+            flushNow(ctx);
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.channel().eventLoop().execute(flushTask);
+        }
+    }
+
+    private void idleFlush() {
+        flushScheduled = false;
+        int burst = burstFlushes;
+        burstFlushes = 0;
+        if (burst < batchSize) {
+            // 空闲时还没攒够, 向实际的合并次数收敛
+            batchSize = Math.max(1, (batchSize + burst) >>> 1);
+        }
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        readInProgress = false;
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (!ctx.channel().isWritable() && pendingFlushes > 0) {
+            // 不可写时尽快把已经写入的数据刷出去
+            flushNow(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        flushIfNeeded(ctx);
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushIfNeeded(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushIfNeeded(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushIfNeeded(ctx);
+    }
+
+    private void flushIfNeeded(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        ACTUAL_FLUSHES.increment();
+        pendingFlushes = 0;
+        pendingBytes = 0;
+        ctx.flush();
+    }
+
+    private static int sizeOf(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof PayloadHolder) {
+            ByteBuf buf = ((PayloadHolder) msg).getByteBuf();
+            return buf == null ? 0 : buf.readableBytes();
+        }
+        return 0;
+    }
+}
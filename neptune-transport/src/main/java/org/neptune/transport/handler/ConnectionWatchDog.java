@@ -22,6 +22,7 @@ import io.netty.util.Timeout;
 import io.netty.util.Timer;
 import io.netty.util.TimerTask;
 import lombok.extern.slf4j.Slf4j;
+import org.neptune.transport.connection.Connection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +50,7 @@ public class ConnectionWatchDog extends ChannelInboundHandlerAdapter {
     private final SocketAddress remoteAddress;
 
     private int attempts;
+    private volatile Connection connection;
 
     public ConnectionWatchDog(Bootstrap bootstrap, Timer timer, SocketAddress remoteAddress) {
         this.bootstrap = bootstrap;
@@ -60,11 +62,22 @@ public class ConnectionWatchDog extends ChannelInboundHandlerAdapter {
         return new ChannelHandler[0];
     }
 
+    /**
+     * 重连成功后需要把新的 channel 绑定回同一个 Connection
+     */
+    public void setConnection(Connection connection) {
+        this.connection = connection;
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         log.info("连接开始活跃:" + JSON.toJSONString(ctx.channel().remoteAddress()));
 
         attempts = 0;
+        Connection conn = connection;
+        if (conn != null) {
+            conn.setChannel(ctx.channel());
+        }
         super.channelActive(ctx);
     }
 
@@ -82,6 +95,8 @@ public class ConnectionWatchDog extends ChannelInboundHandlerAdapter {
             long timeout = backoffTime(attempts);
             timer.newTimeout(task, timeout, TimeUnit.MILLISECONDS);
         }
+        // 继续向后传播, 让后续 handler 清理这个 channel 上的状态 (在途请求, 空闲检测定时器等)
+        ctx.fireChannelInactive();
     }
 
     public void setReconnect(boolean reconnect) {
@@ -19,24 +19,56 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.neptune.transport.protocol.Heartbeats;
 
 /**
  * org.neptune.rpc.transportLayer - ConnectorIdleTriggerHandler
+ * <p>
+ * 客户端心跳: 读空闲(一个心跳间隔内没有收到任何数据)时发送 ping, 服务端回 ack;
+ * 连续 maxMissedHeartbeats 次 ping 之后依然读空闲, 认为链路已经不可用, 关闭 channel 交给看门狗重连.
+ * <p>
+ * 每个连接一个实例; 收到数据后 {@link IdleChecker} 下一次发出的是 first 读空闲事件, 以此重置计数,
+ * 不需要在每条消息的读路径上做任何事情
  *
  * @author tony-is-coding
  * @date 2021/12/24 18:30
  */
+@Slf4j
 public class ConnectorIdleTriggerHandler extends ChannelInboundHandlerAdapter {
+
+    private final int maxMissedHeartbeats;
+
+    // 已经发出但还没有等到任何回应的 ping 个数
+    private int missedHeartbeats;
+
+    public ConnectorIdleTriggerHandler(int maxMissedHeartbeats) {
+        this.maxMissedHeartbeats = Math.max(1, maxMissedHeartbeats);
+    }
+
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof IdleStateEvent) {
-            IdleState state = ((IdleStateEvent) evt).state();
-            if (state == IdleState.WRITER_IDLE) {
-                // write heartbeat to server
-                ctx.writeAndFlush("xxxx");  // TODO:发送心跳信息到server端
+            IdleStateEvent event = (IdleStateEvent) evt;
+            if (event.state() == IdleState.READER_IDLE) {
+                // 事件虽然由 timer 线程发出, 但 pipeline 会切回 IO 线程调用这里, 计数不需要同步
+                onReaderIdle(ctx, event.isFirst());
             }
         } else {
             super.userEventTriggered(ctx, evt);
         }
     }
+
+    private void onReaderIdle(ChannelHandlerContext ctx, boolean first) {
+        if (first) {
+            missedHeartbeats = 0; // 上一次空闲之后收到过数据
+        }
+        if (missedHeartbeats >= maxMissedHeartbeats) {
+            log.warn("no heartbeat ack from {} after {} pings, close the channel", ctx.channel().remoteAddress(), missedHeartbeats);
+            ctx.close();
+            return;
+        }
+        missedHeartbeats++;
+        ctx.writeAndFlush(Heartbeats.ping(), ctx.voidPromise());
+    }
 }
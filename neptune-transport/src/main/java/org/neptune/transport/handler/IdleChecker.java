@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.handler;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.neptune.common.util.CoarseClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * org.neptune.transport.handler - IdleChecker
+ * 空闲链路监测, 替代 {@link IdleStateChecker}, 触发的事件与 {@link io.netty.handler.timeout.IdleStateHandler} 一致:
+ * <p>
+ * 1. 读/写只用 {@link CoarseClock} 记录一下时间, 都是普通字段写; 写不再为每个 promise 挂 listener, 也不调用 System.currentTimeMillis();
+ * 2. 所有连接共享一个 {@link HashedWheelTimer}, 不再每个 acceptor/connector 各自一个;
+ * 3. 每个连接只有一个定时任务, 到期后切回 channel 的 IO 线程检查, 状态只在 IO 线程读写, 不需要 volatile.
+ * <p>
+ * 写空闲以 write 调用为准而不是写出完成, 对端卡住导致写不出去的情况由出站水位和读空闲来发现
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:20
+ */
+public class IdleChecker extends ChannelDuplexHandler {
+
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer(new DefaultThreadFactory("neptune.idle.timer", true));
+
+    private static final long MIN_TIMEOUT_MILLIS = 1;
+
+    private static final int ST_NONE = 0;
+    private static final int ST_INITIALIZED = 1;
+    private static final int ST_DESTROYED = 2;
+
+    private final long readerIdleTimeMillis;
+    private final long writerIdleTimeMillis;
+    private final long allIdleTimeMillis;
+
+    private int state = ST_NONE;
+    private ChannelHandlerContext ctx;
+    private Timeout timeout;
+    private final CheckTask checkTask = new CheckTask();
+
+    // 最近一次读/写的时间, 由 IO 线程写入
+    private long lastReadTime;
+    private long lastWriteTime;
+
+    // 最近一次触发空闲事件的时间, 持续空闲时每隔一个周期触发一次
+    private long lastReaderIdleTime;
+    private long lastWriterIdleTime;
+    private long lastAllIdleTime;
+
+    private boolean firstReaderIdleEvent = true;
+    private boolean firstWriterIdleEvent = true;
+    private boolean firstAllIdleEvent = true;
+
+    public IdleChecker(int readerIdleTimeSeconds, int writerIdleTimeSeconds, int allIdleTimeSeconds) {
+        this(readerIdleTimeSeconds, writerIdleTimeSeconds, allIdleTimeSeconds, TimeUnit.SECONDS);
+    }
+
+    public IdleChecker(long readerIdleTime, long writerIdleTime, long allIdleTime, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        readerIdleTimeMillis = toMillis(readerIdleTime, unit);
+        writerIdleTimeMillis = toMillis(writerIdleTime, unit);
+        allIdleTimeMillis = toMillis(allIdleTime, unit);
+    }
+
+    private static long toMillis(long time, TimeUnit unit) {
+        return time <= 0 ? 0 : Math.max(unit.toMillis(time), MIN_TIMEOUT_MILLIS);
+    }
+
+    public long getReaderIdleTimeInMillis() {
+        return readerIdleTimeMillis;
+    }
+
+    public long getWriterIdleTimeInMillis() {
+        return writerIdleTimeMillis;
+    }
+
+    public long getAllIdleTimeInMillis() {
+        return allIdleTimeMillis;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        Channel ch = ctx.channel();
+        if (ch.isActive() && ch.isRegistered()) {
+            initialize(ctx);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        destroy();
+    }
+
+    @Override
+    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isActive()) {
+            initialize(ctx);
+        }
+        super.channelRegistered(ctx);
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        initialize(ctx);
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        destroy();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (readerIdleTimeMillis > 0 || allIdleTimeMillis > 0) {
+            lastReadTime = CoarseClock.currentTimeMillis();
+            firstReaderIdleEvent = firstAllIdleEvent = true;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (writerIdleTimeMillis > 0 || allIdleTimeMillis > 0) {
+            lastWriteTime = CoarseClock.currentTimeMillis();
+            firstWriterIdleEvent = firstAllIdleEvent = true;
+        }
+        ctx.write(msg, promise);
+    }
+
+    private void initialize(ChannelHandlerContext ctx) {
+        if (state != ST_NONE) {
+            return;
+        }
+        state = ST_INITIALIZED;
+        this.ctx = ctx;
+
+        long now = CoarseClock.currentTimeMillis();
+        lastReadTime = lastWriteTime = now;
+        lastReaderIdleTime = lastWriterIdleTime = lastAllIdleTime = now;
+        long delay = nextDelay(Long.MAX_VALUE, readerIdleTimeMillis);
+        delay = nextDelay(delay, writerIdleTimeMillis);
+        delay = nextDelay(delay, allIdleTimeMillis);
+        if (delay != Long.MAX_VALUE) {
+            timeout = TIMER.newTimeout(checkTask, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void destroy() {
+        state = ST_DESTROYED;
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    private static long nextDelay(long current, long delay) {
+        return delay > 0 ? Math.min(current, delay) : current;
+    }
+
+    //README: 连接channel 处于挂起状态时候被调用
+    protected void channelIdle(ChannelHandlerContext ctx, IdleStateEvent evt) throws Exception {
+        ctx.fireUserEventTriggered(evt);
+    }
+
+    // 在 IO 线程上执行, 依次检查三种空闲, 并按最近的到期时间安排下一次检查
+    private void check() {
+        if (state != ST_INITIALIZED || !ctx.channel().isOpen()) {
+            return;
+        }
+        long now = CoarseClock.currentTimeMillis();
+        long delay = Long.MAX_VALUE;
+        try {
+            if (readerIdleTimeMillis > 0) {
+                long remaining = readerIdleTimeMillis - (now - Math.max(lastReadTime, lastReaderIdleTime));
+                if (remaining <= 0) {
+                    lastReaderIdleTime = now;
+                    remaining = readerIdleTimeMillis;
+                    IdleStateEvent event = firstReaderIdleEvent
+                            ? IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT : IdleStateEvent.READER_IDLE_STATE_EVENT;
+                    firstReaderIdleEvent = false;
+                    channelIdle(ctx, event);
+                }
+                delay = Math.min(delay, remaining);
+            }
+            if (writerIdleTimeMillis > 0) {
+                long remaining = writerIdleTimeMillis - (now - Math.max(lastWriteTime, lastWriterIdleTime));
+                if (remaining <= 0) {
+                    lastWriterIdleTime = now;
+                    remaining = writerIdleTimeMillis;
+                    IdleStateEvent event = firstWriterIdleEvent
+                            ? IdleStateEvent.FIRST_WRITER_IDLE_STATE_EVENT : IdleStateEvent.WRITER_IDLE_STATE_EVENT;
+                    firstWriterIdleEvent = false;
+                    channelIdle(ctx, event);
+                }
+                delay = Math.min(delay, remaining);
+            }
+            if (allIdleTimeMillis > 0) {
+                long lastIoTime = Math.max(lastReadTime, lastWriteTime);
+                long remaining = allIdleTimeMillis - (now - Math.max(lastIoTime, lastAllIdleTime));
+                if (remaining <= 0) {
+                    lastAllIdleTime = now;
+                    remaining = allIdleTimeMillis;
+                    IdleStateEvent event = firstAllIdleEvent
+                            ? IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT : IdleStateEvent.ALL_IDLE_STATE_EVENT;
+                    firstAllIdleEvent = false;
+                    channelIdle(ctx, event);
+                }
+                delay = Math.min(delay, remaining);
+            }
+        } catch (Throwable t) {
+            ctx.fireExceptionCaught(t);
+        }
+        // 空闲事件的处理可能已经关闭了 channel
+        if (state == ST_INITIALIZED && delay != Long.MAX_VALUE) {
+            timeout = TIMER.newTimeout(checkTask, Math.max(delay, MIN_TIMEOUT_MILLIS), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final class CheckTask implements TimerTask, Runnable {
+
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            if (timeout.isCancelled() || !ctx.channel().isOpen()) {
+                return;
+            }
+            // timer 线程只负责把检查投递回 IO 线程
+            ctx.executor().execute(this);
+        }
+
+        @Override
+        public void run() {
+            check();
+        }
+    }
+}
@@ -35,7 +35,9 @@ import java.util.concurrent.TimeUnit;
  *
  * @author tony-is-coding
  * @date 2021/12/16 16:19
+ * @deprecated 每次 write 都要挂一个 listener, 每次读写完成都要调用 System.currentTimeMillis(), 使用 {@link IdleChecker} 代替
  */
+@Deprecated
 public class IdleStateChecker extends ChannelDuplexHandler {
     /*
         README: 读写超时都是基于上一次的读或者写而言了, 每次读/写都需要进行超时(空闲)的重置
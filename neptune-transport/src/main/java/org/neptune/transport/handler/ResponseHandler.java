@@ -22,8 +22,11 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.util.ReferenceCountUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.connection.NettyConnection;
 import org.neptune.transport.processor.ConsumerProcessor;
 
+import java.nio.channels.ClosedChannelException;
+
 /**
  * org.neptune.rpc.transportLayer - ResponseHandler
  *
@@ -46,11 +49,37 @@ public class ResponseHandler extends ChannelInboundHandlerAdapter {
         final Channel channel = ctx.channel();
         if (msg instanceof ResponsePayload) {
             processor.handlerResponse(channel, (ResponsePayload) msg);
+            // 在途请求减少, 请求信用空出来了, 唤醒等待的调用方 (没有等待者时只是一次 volatile 读)
+            NettyConnection connection = NettyConnection.of(channel);
+            if (connection != null) {
+                connection.notifyWritabilityChanged();
+            }
         } else {
             ReferenceCountUtil.release(msg);
         }
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接断开后这些请求不可能再收到响应, 立即失败掉而不是等待超时
+        NettyConnection connection = NettyConnection.of(ctx.channel());
+        if (connection != null) {
+            connection.inFlight().abortAll(new ClosedChannelException());
+            connection.notifyWritabilityChanged();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        // 唤醒等待连接可写的业务线程 (见 DefaultDispatcher)
+        NettyConnection connection = NettyConnection.of(ctx.channel());
+        if (connection != null) {
+            connection.notifyWritabilityChanged();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     public ConsumerProcessor processor() {
         return processor;
     }
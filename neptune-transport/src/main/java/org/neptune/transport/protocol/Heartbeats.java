@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+/**
+ * org.neptune.transport.protocol - Heartbeats
+ * 心跳帧: 只有 16 字节协议头, 没有消息体, 状态位区分 ping (客户端发起) 与 ack (服务端应答)
+ * <p>
+ * ping/ack 的内容是固定的, 所以预先编码成一块共享的 direct buffer, 发送时只取一个 retained duplicate,
+ * 不需要每次分配/编码; 共享 buffer 是 unreleasable 的, 出站释放 duplicate 不会把它释放掉
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 21:10
+ */
+public final class Heartbeats {
+
+    // 心跳帧状态位
+    public static final byte PING = 0x00;
+    public static final byte ACK = 0x01;
+
+    /**
+     * 收到 ping 时由解码器向后续 handler 传播的用户事件, 由服务端 handler 应答
+     */
+    public static final Object PING_EVENT = new Object() {
+        @Override
+        public String toString() {
+            return "HEARTBEAT_PING";
+        }
+    };
+
+    private static final ByteBuf PING_FRAME = Unpooled.unreleasableBuffer(
+            ProtocolEncoder.encodeHeartbeat(UnpooledByteBufAllocator.DEFAULT, PING, 0));
+    private static final ByteBuf ACK_FRAME = Unpooled.unreleasableBuffer(
+            ProtocolEncoder.encodeHeartbeat(UnpooledByteBufAllocator.DEFAULT, ACK, 0));
+
+    private Heartbeats() {
+    }
+
+    /**
+     * 客户端心跳
+     */
+    public static ByteBuf ping() {
+        return PING_FRAME.retainedDuplicate();
+    }
+
+    /**
+     * 服务端对心跳的应答
+     */
+    public static ByteBuf ack() {
+        return ACK_FRAME.retainedDuplicate();
+    }
+}
@@ -15,38 +15,44 @@
  */
 package org.neptune.transport.protocol;
 
-import com.alibaba.fastjson2.JSON;
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
-import io.netty.util.Signal;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
 import lombok.extern.slf4j.Slf4j;
 import org.neptune.transport.RequestPayload;
 import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.connection.NettyConnection;
 
 import java.util.List;
 
+import static org.neptune.transport.protocol.ProtocolHeader.HEADER_SIZE;
+
 /**
  * org.neptune.rpc.transportLayer.handlers - ProtocolDecoder
- * 不可共享, 存在 state的 全局一致性问题
+ * 不可共享, cumulation buffer 是每个连接独有的
+ * <p>
+ * 协议头定长且带有 bodySize, 只需要先窥探(get, 不移动读索引)协议头, 等到 HEADER_SIZE + bodySize 个字节全部可读后一次性解码;
+ * 相比 ReplayingDecoder 不会在半包时反复重跑解码, 也没有 ReplayingDecoderByteBuf 的包装开销
  *
  * @author tony-is-coding
  * @date 2021/12/21 15:43
  */
 @Slf4j
-public class ProtocolDecoder extends ReplayingDecoder<ProtocolDecoder.State> {
-
+public class ProtocolDecoder extends ByteToMessageDecoder {
 
-    // 如果handler 被 share 是否存在风险, 需要考量一下
-    private final ProtocolHeader header = new ProtocolHeader();
+    // 客户端连接, 收到服务端授予的请求信用时更新; 服务端的 channel 上没有
+    private NettyConnection connection;
 
-    public ProtocolDecoder() {
-        super(State.MAGIC);
-    }
+    // 协议头内各字段相对帧起始位置的偏移
+    private static final int SIGN_OFFSET        = 2;
+    private static final int STATUS_OFFSET      = 3;
+    private static final int ID_OFFSET          = 4;
+    private static final int BODY_SIZE_OFFSET   = 12;
 
     /**
-     * 协议头解析, 通过 ReplayingDecoder进行便捷检查 + buffer优化
+     * 一次 channelRead 内把所有完整的帧解码出来, 剩余的半包留在 cumulation 里等待下一次读
      *
      * @param ctx
      * @param in
@@ -56,72 +62,79 @@ public class ProtocolDecoder extends ReplayingDecoder<ProtocolDecoder.State> {
     @Override
     // out 列表 内的数据会被分多次调用fireChannelRead() 往下一个 inbound传递
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        switch (state()) {
-            case MAGIC:
-                ProtocolHeader.checkMagic(in.readShort());         // MAGIC
-                checkpoint(State.SIGN);
-            case SIGN:
-                header.sign(in.readByte());         // 消息标志位
-                checkpoint(State.STATUS);
-            case STATUS:
-                header.status(in.readByte());       // 状态位
-                checkpoint(State.ID);
-            case ID:
-                header.invokeId(in.readLong());     // 消息id
-                checkpoint(State.BODY_SIZE);
-            case BODY_SIZE:
-                header.bodySize(in.readInt());      // 消息体长度
-                checkpoint(State.BODY);
-            case BODY:
-                switch (header.getMsgType()) {
-                    case ProtocolHeader.REQUEST: {
-                        int length = checkBodySize(header.getBodySize());
-                        byte[] bytes = new byte[length];
-                        in.readBytes(bytes);
+        while (in.readableBytes() >= HEADER_SIZE) {
+            final int frameIndex = in.readerIndex();
 
-                        RequestPayload payload = new RequestPayload(header.getInvokeId());
-                        payload.setBytes(bytes);
-                        payload.setSerialTypeCode(header.getSerialTypeCode());
-                        out.add(payload);
-                        break;
-                    }
-                    case ProtocolHeader.RESPONSE: {
-                        int length = checkBodySize(header.getBodySize());
-                        byte[] bytes = new byte[length];
-                        in.readBytes(bytes);
+            // 先做校验, 非法的帧不会被缓存等待
+            if (!ProtocolHeader.checkMagic(in.getShort(frameIndex))) {
+                throw new CorruptedFrameException("illegal magic: " + Integer.toHexString(in.getUnsignedShort(frameIndex)));
+            }
+            final int bodySize = checkBodySize(in.getInt(frameIndex + BODY_SIZE_OFFSET));
+            if (in.readableBytes() < HEADER_SIZE + bodySize) {
+                break; // 半包, 等待后续数据
+            }
 
-                        ResponsePayload payload = new ResponsePayload(header.getInvokeId());
-                        payload.setBytes(bytes);
-                        payload.setStatus(header.getStatus());
-                        payload.setSerialTypeCode(header.getSerialTypeCode());
+            final byte sign = in.getByte(frameIndex + SIGN_OFFSET);
+            final byte status = in.getByte(frameIndex + STATUS_OFFSET);
+            final long invokeIdField = in.getLong(frameIndex + ID_OFFSET);
+            final long invokeId = ProtocolHeader.idOf(invokeIdField);
+            in.skipBytes(HEADER_SIZE);
 
-                        out.add(payload);
-                        break;
-                    }
-                    case ProtocolHeader.HEARTBEAT:
-                        break;
-                    default:
-                        throw Signal.valueOf("illegal message type");
+            final byte msgType = (byte) (sign & 0x0f);
+            final byte serialTypeCode = (byte) (((int) sign & 0xff) >> 4);
+            switch (msgType) {
+                case ProtocolHeader.REQUEST: {
+                    // 不再拷贝到 byte[], 直接持有 cumulation buffer 的 retained slice, 由 processor 消费后释放
+                    RequestPayload payload = RequestPayload.newInstance(invokeId);
+                    payload.setByteBuf(in.readRetainedSlice(bodySize));
+                    payload.setSerialTypeCode(serialTypeCode);
+                    out.add(payload);
+                    break;
+                }
+                case ProtocolHeader.RESPONSE: {
+                    ResponsePayload payload = ResponsePayload.newInstance(invokeId);
+                    payload.setByteBuf(in.readRetainedSlice(bodySize));
+                    payload.setStatus(status);
+                    payload.setSerialTypeCode(serialTypeCode);
+                    out.add(payload);
+                    grantCredits(ctx, invokeIdField);
+                    break;
                 }
-                // 复原, 为了下一次读数据
-                checkpoint(State.MAGIC);
+                case ProtocolHeader.HEARTBEAT:
+                    in.skipBytes(bodySize);
+                    grantCredits(ctx, invokeIdField);
+                    if (status == Heartbeats.PING) {
+                        // 不产生消息, 通过用户事件交给后面的 handler 应答; ack 只需要被读到, 空闲检测自然会重置
+                        ctx.fireUserEventTriggered(Heartbeats.PING_EVENT);
+                    }
+                    break;
+                default:
+                    throw new CorruptedFrameException("illegal message type: " + msgType);
+            }
         }
     }
 
-    private static int checkBodySize(int size) throws Signal {
-        if (size > ProtocolHeader.MAX_BODY_SIZE) {
-            throw Signal.valueOf("body size too large"); // TODO: 自定义统一管理的异常
+    private void grantCredits(ChannelHandlerContext ctx, long invokeIdField) {
+        int credits = ProtocolHeader.creditsOf(invokeIdField);
+        if (credits == 0) {
+            return; // 对端没有开启流控
         }
-        return size;
+        if (connection == null) {
+            connection = NettyConnection.of(ctx.channel());
+            if (connection == null) {
+                return;
+            }
+        }
+        connection.grantCredits(credits);
     }
 
-
-    enum State {
-        MAGIC,
-        SIGN,
-        STATUS,
-        ID,
-        BODY_SIZE,
-        BODY
+    private static int checkBodySize(int size) throws TooLongFrameException, CorruptedFrameException {
+        if (size > ProtocolHeader.MAX_BODY_SIZE) {
+            throw new TooLongFrameException("body size too large: " + size);
+        }
+        if (size < 0) {
+            throw new CorruptedFrameException("negative body size: " + size);
+        }
+        return size;
     }
 }
@@ -15,80 +15,133 @@
  */
 package org.neptune.transport.protocol;
 
-import com.alibaba.fastjson2.JSON;
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.ReferenceCountUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.neptune.transport.PayloadHolder;
 import org.neptune.transport.RequestPayload;
 import org.neptune.transport.ResponsePayload;
 
 /**
  * org.neptune.rpc.transportLayer - ProtocolEncoder
+ * <p>
+ * 两种出站消息体:
+ * 1. byte[], 分配一块 header + body 大小的 buffer 拷贝写入
+ * 2. ByteBuf, 业务线程已经把消息体直接序列化进了这块 buffer 并预留了协议头 ({@link #allocateFrame(ByteBufAllocator)}),
+ * 这里只需要回填协议头 (包括 body 长度), 不再有任何拷贝
  *
  * @author tony-is-coding
  * @date 2021/12/22 17:52
  */
 @Slf4j
-public class ProtocolEncoder extends MessageToByteEncoder<Object> {
+public class ProtocolEncoder extends ChannelOutboundHandlerAdapter {
     /*
         TODO: 这个Handler需要兼容
             1. 请求出去的时候
             2. 响应出去的时候
             所以从本质上, 请求响应必须是一样的, 最好到这一层处理的已经是 byte[]了, 讲序列化的过程在业务线程做完
      */
+
+    /**
+     * 分配一块出站帧 buffer, 写索引跳过协议头, 业务线程随后直接往里面序列化消息体
+     */
+    public static ByteBuf allocateFrame(ByteBufAllocator alloc) {
+        ByteBuf frame = alloc.ioBuffer();
+        frame.writerIndex(frame.writerIndex() + ProtocolHeader.HEADER_SIZE);
+        return frame;
+    }
+
     @Override
-    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
-        if (msg instanceof RequestPayload) {
-            doEncodeRequest((RequestPayload) msg, out);
-        } else if (msg instanceof ResponsePayload) {
-            doEncodeResponse((ResponsePayload) msg, out);
-        } else {
-            throw new IllegalArgumentException();
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            ctx.write(msg, promise); // 已经编码好的帧, 直接透传
+            return;
         }
-    }
 
+        ByteBuf frame;
+        try {
+            if (msg instanceof RequestPayload) {
+                frame = doEncodeRequest(ctx, (RequestPayload) msg);
+            } else if (msg instanceof ResponsePayload) {
+                frame = doEncodeResponse(ctx, (ResponsePayload) msg);
+            } else {
+                throw new IllegalArgumentException("unsupported message type: " + msg.getClass().getName());
+            }
+        } catch (Throwable t) {
+            ReferenceCountUtil.release(msg);
+            recycle(msg);
+            promise.setFailure(t instanceof EncoderException ? t : new EncoderException(t));
+            return;
+        }
+        // 帧已经完全脱离 payload, payload 可以立即归还对象池
+        recycle(msg);
+        ctx.write(frame, promise);
+    }
 
-    // 预分配buffer大小限制, 按照已知的头大小预分配, body大小此时尚未确认
-    // 针对心跳类无消息体消息这样更节省空间
-    @Override
-    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, @SuppressWarnings("unused") Object msg,
-                                     boolean preferDirect) throws Exception {
-        if (preferDirect) {
-            return ctx.alloc().ioBuffer(ProtocolHeader.HEADER_SIZE);
-        } else {
-            return ctx.alloc().heapBuffer(ProtocolHeader.HEADER_SIZE);
+    private static void recycle(Object msg) {
+        if (msg instanceof PayloadHolder) {
+            ((PayloadHolder) msg).recycle();
         }
     }
 
-    private void doEncodeRequest(RequestPayload request, ByteBuf out) {
+    private ByteBuf doEncodeRequest(ChannelHandlerContext ctx, RequestPayload request) {
         byte sign = ProtocolHeader.toSign(request.getSerialTypeCode(), ProtocolHeader.REQUEST);
-        long invokeId = request.getXid();
-        byte[] body = request.getBytes();
-        int length = body.length;
-
-        out.writeShort(ProtocolHeader.MAGIC_WORD)
-                .writeByte(sign)
-                .writeByte(0x00) // 请求状态默认为 0
-                .writeLong(invokeId)
-                .writeInt(length)
-                .writeBytes(body);
+        // 请求状态默认为 0
+        return encode(ctx, request, sign, (byte) 0x00, request.getXid());
     }
 
-    private void doEncodeResponse(ResponsePayload response, ByteBuf out) {
+    private ByteBuf doEncodeResponse(ChannelHandlerContext ctx, ResponsePayload response) {
         byte sign = ProtocolHeader.toSign(response.getSerialTypeCode(), ProtocolHeader.RESPONSE);
-        byte status = response.getStatus();
         long invokeId = response.getXid();
-        byte[] body = response.getBytes();
-        int length = body.length;
+        RequestCredits credits = RequestCredits.of(ctx.channel());
+        if (credits != null) {
+            // 响应写出即归还信用, 同时把窗口捎带给客户端
+            credits.release(ctx.channel());
+            invokeId = ProtocolHeader.withCredits(invokeId, credits.window());
+        }
+        return encode(ctx, response, sign, response.getStatus(), invokeId);
+    }
+
+    /**
+     * 没有消息体的心跳帧, status 为 {@link Heartbeats#PING}/{@link Heartbeats#ACK}, invokeId 字段只携带扩展信息 (比如请求信用)
+     * <p>
+     * 固定内容的 ping/ack 直接使用 {@link Heartbeats} 里预先编码好的共享帧
+     */
+    public static ByteBuf encodeHeartbeat(ByteBufAllocator alloc, byte status, long invokeId) {
+        ByteBuf frame = alloc.ioBuffer(ProtocolHeader.HEADER_SIZE);
+        writeHeader(frame, frame.writerIndex(), ProtocolHeader.toSign((byte) 0, ProtocolHeader.HEARTBEAT), status, invokeId, 0);
+        frame.writerIndex(frame.writerIndex() + ProtocolHeader.HEADER_SIZE);
+        return frame;
+    }
+
+    private static ByteBuf encode(ChannelHandlerContext ctx, PayloadHolder payload, byte sign, byte status, long invokeId) {
+        ByteBuf frame = payload.detachByteBuf();
+        if (frame != null) {
+            // 消息体已经在帧里, 回填协议头即可
+            int headerIndex = frame.readerIndex();
+            writeHeader(frame, headerIndex, sign, status, invokeId, frame.readableBytes() - ProtocolHeader.HEADER_SIZE);
+            return frame;
+        }
 
-        out.writeShort(ProtocolHeader.MAGIC_WORD)
-                .writeByte(sign)
-                .writeByte(status)
-                .writeLong(invokeId)
-                .writeInt(length)
-                .writeBytes(body);
+        byte[] body = payload.getBytes();
+        int length = body.length;
+        frame = ctx.alloc().ioBuffer(ProtocolHeader.HEADER_SIZE + length);
+        writeHeader(frame, frame.writerIndex(), sign, status, invokeId, length);
+        frame.writerIndex(frame.writerIndex() + ProtocolHeader.HEADER_SIZE);
+        frame.writeBytes(body);
+        return frame;
     }
 
+    private static void writeHeader(ByteBuf out, int index, byte sign, byte status, long invokeId, int bodySize) {
+        out.setShort(index, ProtocolHeader.MAGIC_WORD);
+        out.setByte(index + 2, sign);
+        out.setByte(index + 3, status);
+        out.setLong(index + 4, invokeId);
+        out.setInt(index + 12, bodySize);
+    }
 }
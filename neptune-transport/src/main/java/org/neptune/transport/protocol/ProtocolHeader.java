@@ -35,7 +35,7 @@ import java.io.Serializable;
  * = 2 // magic = (short) 0xabcd
  * + 1 // 消息标志位, 低地址4位用来表示消息类型request/response/heartbeat等, 高地址4位用来表示序列化类型
  * + 1 // 状态位, 设置请求响应状态
- * + 8 // 消息 id, long 类型, 未来考虑可能将id限制在48位, 留出高地址的16位作为扩展字段
+ * + 8 // 消息 id, long 类型, 只使用低 48 位; 高 16 位是扩展字段, 服务端发出的响应/心跳用它携带请求信用 (见 {@link RequestCredits})
  * + 4 // 消息体 body 长度, int 类型
  *
  * @author tony-is-coding
@@ -55,6 +55,12 @@ public class ProtocolHeader implements Serializable {
      */
     public static final short MAGIC_WORD = (short) 0xabcd;
 
+    /**
+     * invokeId 字段中 id 与扩展字段的划分
+     */
+    public static final int EXTENSION_SHIFT = 48;
+    public static final long ID_MASK = (1L << EXTENSION_SHIFT) - 1;
+
     /**
      * 序列化器吗 只有四位 0 - 15 最多支持16种
      */
@@ -86,6 +92,21 @@ public class ProtocolHeader implements Serializable {
         return magic == MAGIC_WORD;
     }
 
+    /**
+     * 把请求信用放进 invokeId 字段的高 16 位
+     */
+    public static long withCredits(long invokeId, int credits) {
+        return (invokeId & ID_MASK) | ((long) (credits & RequestCredits.MAX_CREDITS) << EXTENSION_SHIFT);
+    }
+
+    public static long idOf(long invokeIdField) {
+        return invokeIdField & ID_MASK;
+    }
+
+    public static int creditsOf(long invokeIdField) {
+        return (int) (invokeIdField >>> EXTENSION_SHIFT);
+    }
+
     public void sign(byte sign) {
         this.serialTypeCode = (byte) (((int) sign & 0xff) >> 4);
         this.msgType = (byte) (sign & 0x0f);
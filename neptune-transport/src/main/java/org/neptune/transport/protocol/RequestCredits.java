@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022 The Neptune Project
+ *
+ * Licensed under the Apache License, version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neptune.transport.protocol;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+/**
+ * org.neptune.transport.protocol - RequestCredits
+ * 服务端按连接授予的请求信用(流控扩展):
+ * <p>
+ * 1. 服务端为每个连接设置一个窗口, 即同一连接上最多有多少个请求在处理中(已解码但响应还没写出);
+ * 2. 窗口大小放在服务端发出的响应/心跳帧 invokeId 的高 16 位中 ({@link ProtocolHeader#withCredits(long, int)}),
+ *    客户端据此限制每个连接的在途请求数, 信用用完时不再往这个连接派发;
+ * 3. 客户端的检查与发送不是原子的, 可能略微超出窗口; 服务端在信用用完时暂停读取这个连接(autoRead=false),
+ *    多出来的请求留在 TCP 缓冲里, 直到有响应写出再恢复. 每个客户端在服务端占用的内存与业务线程池队列都是有上限的,
+ *    流量大的调用方不会挤占其他调用方.
+ * <p>
+ * 窗口为 0 表示没有开启流控, 客户端不做限制. 服务端默认不开启 (-Dneptune.server.requestCredits=0),
+ * 此时 invokeId 的高 16 位始终为 0, 与不认识这个扩展的客户端兼容.
+ * 所有方法都只在 channel 的 event loop 中调用, 不需要同步.
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 23:10
+ */
+public final class RequestCredits {
+
+    /**
+     * 窗口只有 16 位
+     */
+    public static final int MAX_CREDITS = 0xffff;
+
+    private static final AttributeKey<RequestCredits> REQUEST_CREDITS_KEY = AttributeKey.valueOf("request_credits");
+
+    private final int window;
+    private int outstanding;
+
+    RequestCredits(int window) {
+        this.window = Math.min(Math.max(window, 1), MAX_CREDITS);
+    }
+
+    /**
+     * 为 channel 开启流控
+     */
+    public static RequestCredits attach(Channel channel, int window) {
+        RequestCredits credits = new RequestCredits(window);
+        channel.attr(REQUEST_CREDITS_KEY).set(credits);
+        return credits;
+    }
+
+    /**
+     * 没有开启流控时返回 null
+     */
+    public static RequestCredits of(Channel channel) {
+        return channel.attr(REQUEST_CREDITS_KEY).get();
+    }
+
+    /**
+     * 收到一个请求时调用, 信用用完时暂停读取
+     */
+    public void acquire(Channel channel) {
+        if (++outstanding >= window) {
+            channel.config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * 请求的响应写出时调用, 信用恢复且 channel 可写时恢复读取
+     */
+    public void release(Channel channel) {
+        if (outstanding > 0 && --outstanding < window
+                && !channel.config().isAutoRead() && channel.isWritable()) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    public boolean hasCredit() {
+        return outstanding < window;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    public int outstanding() {
+        return outstanding;
+    }
+}
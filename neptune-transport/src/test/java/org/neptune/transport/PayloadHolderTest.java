@@ -0,0 +1,71 @@
+package org.neptune.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * org.neptune.transport - PayloadHolderTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 10:10
+ */
+class PayloadHolderTest {
+
+    @Test
+    public void testRetainThenReleaseTwice() {
+        ByteBuf buf = Unpooled.buffer(8);
+        PayloadHolder holder = new PayloadHolder();
+        holder.setByteBuf(buf);
+
+        holder.retain();
+        Assertions.assertEquals(2, holder.refCnt());
+        Assertions.assertFalse(holder.release());
+        Assertions.assertSame(buf, holder.getByteBuf()); // 还有一个引用, 不能丢掉
+        Assertions.assertTrue(holder.release());
+        Assertions.assertEquals(0, buf.refCnt());
+        Assertions.assertNull(holder.getByteBuf());
+        Assertions.assertEquals(0, holder.refCnt());
+        Assertions.assertFalse(holder.release());
+    }
+
+    @Test
+    public void testReleaseDecrement() {
+        ByteBuf buf = Unpooled.buffer(8);
+        PayloadHolder holder = new PayloadHolder();
+        holder.setByteBuf(buf);
+
+        holder.retain(2);
+        Assertions.assertFalse(holder.release(2));
+        Assertions.assertEquals(1, holder.refCnt());
+        Assertions.assertSame(buf, holder.getByteBuf());
+        Assertions.assertTrue(holder.release(1));
+        Assertions.assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testSharedCountSlice() {
+        // 入站的 retained slice 与 cumulation 共享引用计数
+        ByteBuf cumulation = Unpooled.buffer(8).writeLong(1);
+        RequestPayload payload = RequestPayload.newInstance(1);
+        payload.setByteBuf(cumulation.readRetainedSlice(8));
+
+        Assertions.assertFalse(payload.release()); // cumulation 还持有
+        Assertions.assertNull(payload.getByteBuf());
+        payload.recycle(); // 不会再次释放
+        Assertions.assertEquals(1, cumulation.refCnt());
+        Assertions.assertTrue(cumulation.release());
+    }
+
+    @Test
+    public void testClearReleasesRemainingReferences() {
+        ByteBuf buf = Unpooled.buffer(8);
+        RequestPayload payload = RequestPayload.newInstance(1);
+        payload.setByteBuf(buf);
+        payload.retain();
+        payload.recycle();
+        Assertions.assertEquals(0, buf.refCnt());
+    }
+}
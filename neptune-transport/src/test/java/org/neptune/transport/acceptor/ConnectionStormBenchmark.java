@@ -0,0 +1,140 @@
+package org.neptune.transport.acceptor;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.SocketChannelFactoryProvider;
+import org.neptune.transport.Status;
+import org.neptune.transport.processor.ProviderProcessor;
+import org.neptune.transport.protocol.ProtocolDecoder;
+import org.neptune.transport.protocol.ProtocolEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.neptune.transport.SocketChannelFactoryProvider.SocketType;
+
+
+/**
+ * org.neptune.transport.acceptor - ConnectionStormBenchmark
+ * 模拟发布之后大量客户端同时重连: 每次操作并发建立 connections 个连接, 每个连接发一个请求并等到响应后关闭,
+ * 对比单监听 socket 与 SO_REUSEPORT 多监听 socket 的耗时
+ * <p>
+ * 需要 linux + epoll, 并发连接数受 ulimit -n 与 somaxconn 限制
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 14:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConnectionStormBenchmark {
+
+    private static final int PORT = 18090;
+
+    @Param({"1", "4"})
+    private int listeners;
+
+    @Param({"2000"})
+    private int connections;
+
+    private NettyAcceptor acceptor;
+    private EventLoopGroup clientGroup;
+    private Bootstrap bootstrap;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        acceptor = new NettyAcceptor(listeners, 8, PORT, SocketType.NATIVE_EPOLL);
+        acceptor.withProcessor(new PongProcessor());
+        acceptor.startAsync();
+
+        clientGroup = SocketChannelFactoryProvider.eventLoopGroup(SocketType.NATIVE_EPOLL, 4,
+                new DefaultThreadFactory("storm-client"));
+        bootstrap = new Bootstrap()
+                .group(clientGroup)
+                .channelFactory(SocketChannelFactoryProvider.connector(SocketType.NATIVE_EPOLL))
+                .option(ChannelOption.SO_LINGER, 0) // RST 关闭, 避免客户端端口堆积在 TIME_WAIT
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientGroup.shutdownGracefully();
+        acceptor.shutdownGracefully();
+    }
+
+    @Benchmark
+    public void storm() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(connections);
+        Bootstrap bs = bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline().addLast(new ProtocolEncoder(), new ProtocolDecoder(), new ChannelInboundHandlerAdapter() {
+
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        RequestPayload request = RequestPayload.newInstance(1L);
+                        request.setBytes(new byte[0]);
+                        ctx.writeAndFlush(request);
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ReferenceCountUtil.release(msg);
+                        latch.countDown();
+                        ctx.close();
+                    }
+                });
+            }
+        });
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", PORT);
+        for (int i = 0; i < connections; i++) {
+            bs.connect(address);
+        }
+        if (!latch.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("storm not finished, remaining: " + latch.getCount());
+        }
+    }
+
+    static final class PongProcessor implements ProviderProcessor {
+
+        @Override
+        public void handleRequest(Channel channel, RequestPayload request) {
+            ResponsePayload response = ResponsePayload.newInstance(request.getXid());
+            response.setStatus(Status.OK.value());
+            response.setBytes(new byte[0]);
+            request.release();
+            request.recycle();
+            channel.writeAndFlush(response);
+        }
+
+        @Override
+        public void handleException(Channel channel, RequestPayload request, Status status, Throwable cause) {
+            request.release();
+            request.recycle();
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConnectionStormBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,193 @@
+package org.neptune.transport.acceptor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.SocketChannelFactoryProvider.SocketType;
+import org.neptune.transport.Status;
+import org.neptune.transport.connection.NettyConnection;
+import org.neptune.transport.connection.OutboundQueue;
+import org.neptune.transport.connector.NettyConnector;
+import org.neptune.transport.processor.ConsumerProcessor;
+import org.neptune.transport.processor.ProviderProcessor;
+import org.neptune.transport.protocol.ProtocolEncoder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * org.neptune.transport.acceptor - LoopbackTest
+ * 真实的 NettyAcceptor + NettyConnector (JAVA_NIO) 走一遍本机回环: 请求/响应, 请求信用, 心跳保活
+ *
+ * @author tony-is-coding
+ * @date 2026/10/19 12:30
+ */
+class LoopbackTest {
+
+    private static final int CREDITS = 2;
+    private static final int READER_IDLE_SECONDS = 2;
+
+    static {
+        // NettyAcceptor/NettyConnector 在类加载时读取这些配置, 必须在它们加载之前设置
+        System.setProperty("neptune.server.requestCredits", String.valueOf(CREDITS));
+        System.setProperty("neptune.server.readerIdleSeconds", String.valueOf(READER_IDLE_SECONDS));
+        System.setProperty("neptune.client.heartbeatIntervalSeconds", "1");
+    }
+
+    static final class ServerProcessor implements ProviderProcessor {
+        final BlockingQueue<RequestPayload> requests = new LinkedBlockingQueue<>();
+        volatile Channel channel;
+
+        @Override
+        public void handleRequest(Channel channel, RequestPayload request) {
+            this.channel = channel;
+            requests.add(request);
+        }
+
+        @Override
+        public void handleException(Channel channel, RequestPayload request, Status status, Throwable cause) {
+            request.release();
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+
+        // 原样回显请求体
+        void respond(RequestPayload request) {
+            ByteBuf frame = ProtocolEncoder.allocateFrame(channel.alloc());
+            frame.writeBytes(request.getByteBuf());
+            ResponsePayload response = ResponsePayload.newInstance(request.getXid());
+            response.setStatus(Status.OK.value());
+            response.setByteBuf(frame);
+            request.release();
+            OutboundQueue.write(channel, response);
+        }
+    }
+
+    static final class ClientProcessor implements ConsumerProcessor {
+        final BlockingQueue<Long> responses = new LinkedBlockingQueue<>();
+
+        @Override
+        public void handlerResponse(Channel channel, ResponsePayload response) {
+            try {
+                NettyConnection.of(channel).inFlight().remove(response.getXid());
+                long body = response.getByteBuf().readLong();
+                Assertions.assertEquals(response.getXid(), body);
+                responses.add(response.getXid());
+            } finally {
+                response.release();
+            }
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+    }
+
+    private static final ServerProcessor server = new ServerProcessor();
+    private static final ClientProcessor client = new ClientProcessor();
+    private static NettyAcceptor acceptor;
+    private static NettyConnector connector;
+    private static NettyConnection connection;
+
+    @BeforeAll
+    public static void start() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        acceptor = new NettyAcceptor(1, 2, port, SocketType.JAVA_NIO);
+        acceptor.withProcessor(server);
+        acceptor.startAsync();
+
+        connector = new NettyConnector(client, SocketType.JAVA_NIO);
+        connection = (NettyConnection) connector.connect(new UnresolvedSocketAddress("127.0.0.1", port), false);
+        // 连接建立后服务端立即通过心跳帧授予初始信用
+        awaitTrue(() -> connection.creditWindow() == CREDITS);
+    }
+
+    @AfterAll
+    public static void stop() {
+        if (connector != null) {
+            connection.setReconnect(false);
+            connector.shutdownGracefully();
+        }
+        if (acceptor != null) {
+            acceptor.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testCallWithinCredits() throws Exception {
+        Channel ch = connection.channel();
+        Assertions.assertTrue(connection.isWritable());
+
+        send(ch, 1);
+        send(ch, 2);
+        // 在途请求达到授予的信用, 客户端不再可写
+        Assertions.assertFalse(connection.isWritable());
+        Assertions.assertFalse(connection.awaitWritable(100));
+
+        RequestPayload first = server.requests.poll(5, TimeUnit.SECONDS);
+        RequestPayload second = server.requests.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(second);
+
+        server.respond(first);
+        Assertions.assertEquals(1L, client.responses.poll(5, TimeUnit.SECONDS));
+        // 响应归还了信用, 等待者被唤醒
+        Assertions.assertTrue(connection.awaitWritable(5000));
+
+        server.respond(second);
+        Assertions.assertEquals(2L, client.responses.poll(5, TimeUnit.SECONDS));
+        awaitTrue(() -> connection.inFlight().size() == 0);
+        Assertions.assertEquals(CREDITS, connection.creditWindow());
+    }
+
+    @Test
+    public void testIdleConnectionSurvivesHeartbeats() throws Exception {
+        Channel ch = connection.channel();
+        // 没有任何请求, 超过服务端读空闲时间的两倍, 只靠客户端心跳维持
+        Thread.sleep(TimeUnit.SECONDS.toMillis(READER_IDLE_SECONDS * 2 + 1));
+
+        Assertions.assertSame(ch, connection.channel());
+        Assertions.assertTrue(ch.isActive());
+        Assertions.assertEquals(CREDITS, connection.creditWindow());
+
+        // 连接仍然可用
+        send(ch, 3);
+        RequestPayload request = server.requests.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(request);
+        server.respond(request);
+        Assertions.assertEquals(3L, client.responses.poll(5, TimeUnit.SECONDS));
+    }
+
+    private static void send(Channel ch, long xid) {
+        connection.inFlight().put(xid, cause -> { });
+        ByteBuf frame = ProtocolEncoder.allocateFrame(ch.alloc());
+        frame.writeLong(xid);
+        RequestPayload request = RequestPayload.newInstance(xid);
+        request.setByteBuf(frame);
+        OutboundQueue.write(ch, request);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,110 @@
+package org.neptune.transport.connection;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.common.UnresolvedSocketAddress;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * org.neptune.transport.connection - ConnectionGroupTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 21:00
+ */
+class ConnectionGroupTest {
+
+    private static final UnresolvedSocketAddress ADDRESS = new UnresolvedSocketAddress("127.0.0.1", 8001);
+
+    private static Connection newConnection() {
+        EmbeddedChannel ch = new EmbeddedChannel();
+        return new NettyConnection(ch.newSucceededFuture(), InetSocketAddress.createUnresolved("127.0.0.1", 8001), false);
+    }
+
+    private static void pending(Connection connection, int count) {
+        for (int i = 0; i < count; i++) {
+            connection.inFlight().put(connection.inFlight().size() + 1, cause -> {
+            });
+        }
+    }
+
+    @Test
+    public void testLeastPending() {
+        ConnectionGroup group = new ConnectionGroup(ADDRESS, 3);
+        group.addConnect(ConnectionGroupTest::newConnection);
+        Assertions.assertTrue(group.isFull());
+        Connection c0 = group.connections().get(0);
+        Connection c1 = group.connections().get(1);
+        Connection c2 = group.connections().get(2);
+        pending(c0, 3);
+        pending(c1, 1);
+        pending(c2, 2);
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertSame(c1, group.next());
+        }
+
+        // 不可写的连接只在没有其他选择时使用
+        c1.inFlight().abortAll(new RuntimeException());
+        c1.channel().config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        c1.channel().write(Unpooled.wrappedBuffer(new byte[16]));
+        Assertions.assertFalse(c1.channel().isWritable());
+        Assertions.assertSame(c2, group.next());
+
+        Assertions.assertTrue(group.removeConnect(c2));
+        Assertions.assertFalse(group.isFull());
+        Assertions.assertSame(c0, group.next());
+    }
+
+    @Test
+    public void testNoActiveConnection() {
+        ConnectionGroup group = new ConnectionGroup(ADDRESS, 2);
+        Assertions.assertNull(group.next());
+
+        group.addConnect(ConnectionGroupTest::newConnection);
+        Connection c0 = group.connections().get(0);
+        Connection c1 = group.connections().get(1);
+        c0.channel().close();
+        Assertions.assertSame(c1, group.next());
+        c1.channel().close();
+        Assertions.assertNull(group.next());
+
+        // 单连接的分组同样不会返回已经断开的连接
+        ConnectionGroup single = new ConnectionGroup(ADDRESS, 1);
+        single.addConnect(ConnectionGroupTest::newConnection);
+        single.connections().get(0).channel().close();
+        Assertions.assertNull(single.next());
+    }
+
+    @Test
+    public void testConcurrentFill() throws InterruptedException {
+        ConnectionGroup group = new ConnectionGroup(ADDRESS, 4);
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ignored) {
+                }
+                group.addConnect(() -> {
+                    created.incrementAndGet();
+                    return newConnection();
+                });
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assertions.assertEquals(4, created.get());
+        Assertions.assertEquals(4, group.connections().size());
+    }
+}
@@ -0,0 +1,121 @@
+package org.neptune.transport.connection;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.transport.connection - OutboundQueueTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 21:40
+ */
+class OutboundQueueTest {
+
+    static final class FlushCounter extends ChannelOutboundHandlerAdapter {
+        int flushes;
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            flushes++;
+            ctx.flush();
+        }
+    }
+
+    private static ByteBuf message(int i, int size) {
+        ByteBuf buf = Unpooled.buffer(size);
+        buf.writeInt(i);
+        buf.writerIndex(size);
+        return buf;
+    }
+
+    @Test
+    public void testSingleFlushPerBatch() throws InterruptedException {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel ch = new EmbeddedChannel(counter);
+        OutboundQueue queue = new OutboundQueue(ch, 64 * 1024, TimeUnit.SECONDS.toNanos(1));
+
+        // 业务线程入队
+        ChannelFuture[] futures = new ChannelFuture[100];
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = queue.enqueue(message(i, 8));
+            }
+        });
+        producer.start();
+        producer.join();
+        Assertions.assertNull(ch.readOutbound());
+
+        ch.runPendingTasks();
+        Assertions.assertEquals(1, counter.flushes);
+        for (int i = 0; i < futures.length; i++) {
+            ByteBuf buf = ch.readOutbound();
+            Assertions.assertEquals(i, buf.readInt());
+            buf.release();
+            Assertions.assertTrue(futures[i].isSuccess());
+        }
+        Assertions.assertNull(ch.readOutbound());
+        Assertions.assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testBatchBytesLimit() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel ch = new EmbeddedChannel(counter);
+        OutboundQueue queue = new OutboundQueue(ch, 1024, TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(message(i, 512));
+        }
+        // 每两条达到字节上限, flush 后重新提交, 中间可以穿插其他任务
+        ch.runPendingTasks();
+        Assertions.assertEquals(5, counter.flushes);
+        for (int i = 0; i < 10; i++) {
+            ByteBuf buf = ch.readOutbound();
+            Assertions.assertEquals(i, buf.readInt());
+            buf.release();
+        }
+        Assertions.assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testWritabilityFollowsQueuedBytes() {
+        EmbeddedChannel ch = new EmbeddedChannel();
+        ch.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
+        OutboundQueue queue = new OutboundQueue(ch, 64 * 1024, TimeUnit.SECONDS.toNanos(1));
+
+        // 还没有进入 netty 出站缓冲的字节同样计入水位
+        for (int i = 0; i < 4; i++) {
+            queue.enqueue(message(i, 512));
+        }
+        Assertions.assertTrue(ch.isWritable());
+        queue.enqueue(message(4, 512));
+        Assertions.assertFalse(ch.isWritable());
+        Assertions.assertEquals(5 * 512, queue.pendingBytes());
+
+        ch.runPendingTasks();
+        Assertions.assertTrue(ch.isWritable());
+        Assertions.assertEquals(0, queue.pendingBytes());
+        Assertions.assertTrue(ch.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testClosedChannel() {
+        EmbeddedChannel ch = new EmbeddedChannel();
+        OutboundQueue queue = new OutboundQueue(ch, 1024, TimeUnit.SECONDS.toNanos(1));
+        ch.close();
+        ByteBuf msg = message(1, 8);
+        ChannelFuture future = queue.enqueue(msg);
+        ch.runPendingTasks();
+        Assertions.assertFalse(future.isSuccess());
+        Assertions.assertEquals(0, msg.refCnt());
+    }
+}
@@ -0,0 +1,119 @@
+package org.neptune.transport.handler;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * org.neptune.transport.handler - AdaptiveFlushHandlerTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:20
+ */
+class AdaptiveFlushHandlerTest {
+
+    // 吞掉所有 write/flush, EmbeddedChannel 的 unsafe 每次操作后都会执行 pending task, 会打乱 "空闲" 的时机
+    static final class FlushCounter extends ChannelOutboundHandlerAdapter {
+        int writes;
+        int flushes;
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            writes++;
+            ReferenceCountUtil.release(msg);
+            promise.setSuccess();
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            flushes++;
+        }
+    }
+
+    @Test
+    public void testIdleFlushIsImmediate() {
+        FlushCounter counter = new FlushCounter();
+        AdaptiveFlushHandler handler = new AdaptiveFlushHandler(64, 64 * 1024);
+        EmbeddedChannel ch = new EmbeddedChannel(counter, handler);
+
+        ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        // batchSize 初始为 1, 空闲时不做任何合并
+        Assertions.assertEquals(1, counter.flushes);
+        Assertions.assertEquals(1, counter.writes);
+        ch.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushOncePerReadCycle() {
+        FlushCounter counter = new FlushCounter();
+        AdaptiveFlushHandler handler = new AdaptiveFlushHandler(64, 64 * 1024);
+        EmbeddedChannel ch = new EmbeddedChannel(counter, handler);
+        ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                ctx.writeAndFlush(msg);
+            }
+        });
+
+        ch.pipeline().fireChannelRead(Unpooled.wrappedBuffer(new byte[4]));
+        ch.pipeline().fireChannelRead(Unpooled.wrappedBuffer(new byte[4]));
+        ch.pipeline().fireChannelRead(Unpooled.wrappedBuffer(new byte[4]));
+        Assertions.assertEquals(0, counter.flushes);
+        ch.pipeline().fireChannelReadComplete();
+        Assertions.assertEquals(1, counter.flushes);
+        Assertions.assertEquals(3, counter.writes);
+        ch.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBatchSizeAdapts() {
+        FlushCounter counter = new FlushCounter();
+        AdaptiveFlushHandler handler = new AdaptiveFlushHandler(8, 64 * 1024);
+        EmbeddedChannel ch = new EmbeddedChannel(counter, handler);
+
+        // 同一个 event loop 任务内连续 flush, 中间没有空闲, 合并次数逐步扩大到上限
+        ch.eventLoop().execute(() -> {
+            for (int i = 0; i < 100; i++) {
+                ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[4]));
+            }
+            Assertions.assertEquals(8, handler.batchSize());
+        });
+        ch.runPendingTasks();
+        Assertions.assertEquals(100, counter.writes);
+        Assertions.assertTrue(counter.flushes < 30);
+
+        // 空闲后只剩一次待 flush, 目标向实际合并次数收敛
+        int before = counter.flushes;
+        ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[4]));
+        ch.runPendingTasks();
+        Assertions.assertTrue(counter.flushes > before);
+        Assertions.assertTrue(handler.batchSize() < 8);
+        for (int i = 0; i < 5; i++) {
+            ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[4]));
+            ch.runPendingTasks();
+        }
+        Assertions.assertEquals(1, handler.batchSize());
+        ch.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushWhenPendingBytesExceeded() {
+        FlushCounter counter = new FlushCounter();
+        AdaptiveFlushHandler handler = new AdaptiveFlushHandler(64, 16);
+        EmbeddedChannel ch = new EmbeddedChannel(counter, handler);
+
+        ch.pipeline().fireChannelRead(Unpooled.EMPTY_BUFFER);
+        ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        Assertions.assertEquals(0, counter.flushes);
+        ch.writeAndFlush(Unpooled.wrappedBuffer(new byte[8]));
+        Assertions.assertEquals(1, counter.flushes);
+        ch.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,99 @@
+package org.neptune.transport.handler;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.HashedWheelTimer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * org.neptune.transport.handler - IdleCheckerBenchmark
+ * 每次操作模拟一条入站消息 + 一条出站消息经过空闲检测 handler, 对比 {@link IdleStateChecker} (每次 write 挂 listener,
+ * 读写完成调用 System.currentTimeMillis()) 与 {@link IdleChecker} (粗粒度时钟 + 普通字段写) 的单消息开销, 关注 gc.alloc.rate.norm
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:50
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdleCheckerBenchmark {
+
+    private static final Object MSG = new Object();
+
+    // 出站终点: 直接完成 promise, 触发 listener, 不进入 EmbeddedChannel 的出站队列
+    static final class OutboundSink extends ChannelOutboundHandlerAdapter {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            promise.trySuccess();
+        }
+    }
+
+    static final class InboundSink extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            // 丢弃
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            // 丢弃
+        }
+    }
+
+    @Param({"IdleStateChecker", "IdleChecker"})
+    private String checker;
+
+    private HashedWheelTimer timer;
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        ChannelHandler handler;
+        if ("IdleStateChecker".equals(checker)) {
+            timer = new HashedWheelTimer();
+            handler = new IdleStateChecker(timer, 60, 60, 0);
+        } else {
+            handler = new IdleChecker(60, 60, 0);
+        }
+        channel = new EmbeddedChannel(new OutboundSink(), handler, new InboundSink());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Benchmark
+    public void readAndWrite() {
+        channel.pipeline().fireChannelRead(MSG);
+        channel.pipeline().fireChannelReadComplete();
+        channel.write(MSG, channel.newPromise());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(IdleCheckerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
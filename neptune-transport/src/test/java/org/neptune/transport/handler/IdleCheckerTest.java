@@ -0,0 +1,96 @@
+package org.neptune.transport.handler;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * org.neptune.transport.handler - IdleCheckerTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 22:40
+ */
+class IdleCheckerTest {
+
+    static final class EventRecorder extends ChannelInboundHandlerAdapter {
+        final BlockingQueue<IdleStateEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+            if (evt instanceof IdleStateEvent) {
+                events.add((IdleStateEvent) evt);
+            }
+        }
+    }
+
+    @Test
+    public void testReaderIdle() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        try {
+            LocalAddress address = new LocalAddress("idle-checker-test");
+            AtomicReference<Channel> serverChild = new AtomicReference<>();
+            Channel server = new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+                    .childHandler(new ChannelInitializer<LocalChannel>() {
+                        @Override
+                        protected void initChannel(LocalChannel ch) {
+                            serverChild.set(ch);
+                        }
+                    })
+                    .bind(address).sync().channel();
+
+            EventRecorder recorder = new EventRecorder();
+            Channel client = new Bootstrap().group(group).channel(LocalChannel.class)
+                    .handler(new ChannelInitializer<LocalChannel>() {
+                        @Override
+                        protected void initChannel(LocalChannel ch) {
+                            ch.pipeline().addLast(new IdleChecker(200, 0, 0, TimeUnit.MILLISECONDS), recorder);
+                        }
+                    })
+                    .connect(address).sync().channel();
+
+            Assertions.assertSame(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT, recorder.events.poll(2, TimeUnit.SECONDS));
+            Assertions.assertSame(IdleStateEvent.READER_IDLE_STATE_EVENT, recorder.events.poll(2, TimeUnit.SECONDS));
+
+            // 收到数据后的下一次空闲重新是 first 事件
+            serverChild.get().writeAndFlush(Unpooled.wrappedBuffer(new byte[]{1})).sync();
+            IdleStateEvent event;
+            do {
+                event = recorder.events.poll(2, TimeUnit.SECONDS);
+                Assertions.assertNotNull(event);
+            } while (event == IdleStateEvent.READER_IDLE_STATE_EVENT);
+            Assertions.assertSame(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT, event);
+
+            // 关闭之后不再触发
+            client.close().sync();
+            recorder.events.clear();
+            Assertions.assertNull(recorder.events.poll(500, TimeUnit.MILLISECONDS));
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.neptune.transport.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.transport.handler.AcceptorHandler;
+import org.neptune.transport.handler.ConnectorIdleTriggerHandler;
+
+
+/**
+ * org.neptune.transport.protocol - HeartbeatsTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 21:40
+ */
+class HeartbeatsTest {
+
+    private static byte statusOf(ByteBuf frame) {
+        try {
+            Assertions.assertEquals(ProtocolHeader.HEADER_SIZE, frame.readableBytes());
+            Assertions.assertEquals(ProtocolHeader.HEARTBEAT, frame.getByte(frame.readerIndex() + 2) & 0x0f);
+            return frame.getByte(frame.readerIndex() + 3);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testSharedFrameSurvivesRelease() {
+        for (int i = 0; i < 3; i++) {
+            ByteBuf ping = Heartbeats.ping();
+            ping.skipBytes(ProtocolHeader.HEADER_SIZE); // 模拟写出, 不影响共享帧的索引
+            ping.release();
+        }
+        Assertions.assertEquals(Heartbeats.PING, statusOf(Heartbeats.ping()));
+        Assertions.assertEquals(Heartbeats.ACK, statusOf(Heartbeats.ack()));
+    }
+
+    @Test
+    public void testServerAnswersPing() {
+        EmbeddedChannel server = new EmbeddedChannel(new ProtocolDecoder(), new AcceptorHandler(null));
+        server.writeInbound(Heartbeats.ping());
+
+        Assertions.assertNull(server.readInbound());
+        Assertions.assertEquals(Heartbeats.ACK, statusOf(server.readOutbound()));
+        Assertions.assertNull(server.readOutbound());
+        Assertions.assertFalse(server.finish());
+    }
+
+    @Test
+    public void testClientClosesAfterMissedAcks() {
+        EmbeddedChannel client = new EmbeddedChannel(new ConnectorIdleTriggerHandler(2));
+
+        // 空闲 -> ping, 收到数据后的下一次空闲是 first 事件, 计数重置
+        client.pipeline().fireUserEventTriggered(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT);
+        client.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT);
+        client.pipeline().fireUserEventTriggered(IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT);
+        client.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals(Heartbeats.PING, statusOf(client.readOutbound()));
+        }
+        Assertions.assertTrue(client.isActive());
+
+        // 连续两个 ping 都没有回应
+        client.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT);
+        Assertions.assertNull(client.readOutbound());
+        Assertions.assertFalse(client.isActive());
+    }
+}
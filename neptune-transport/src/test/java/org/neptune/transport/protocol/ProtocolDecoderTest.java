@@ -0,0 +1,111 @@
+package org.neptune.transport.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.TooLongFrameException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.transport.PayloadHolder;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.ResponsePayload;
+
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * org.neptune.transport.protocol - ProtocolDecoderTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 11:05
+ */
+class ProtocolDecoderTest {
+
+    private static void writeFrame(ByteBuf buf, byte msgType, long id, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        buf.writeShort(ProtocolHeader.MAGIC_WORD)
+                .writeByte(ProtocolHeader.toSign((byte) 0, msgType))
+                .writeByte(0x20)
+                .writeLong(id)
+                .writeInt(bytes.length)
+                .writeBytes(bytes);
+    }
+
+    private static String bodyOf(PayloadHolder payload) {
+        String s = payload.getByteBuf().toString(StandardCharsets.UTF_8);
+        payload.release();
+        return s;
+    }
+
+    @Test
+    public void testPipelinedFramesInOneRead() {
+        EmbeddedChannel ch = new EmbeddedChannel(new ProtocolDecoder());
+        ByteBuf buf = Unpooled.buffer();
+        writeFrame(buf, ProtocolHeader.REQUEST, 1, "a");
+        writeFrame(buf, ProtocolHeader.HEARTBEAT, 0, "");
+        writeFrame(buf, ProtocolHeader.RESPONSE, 2, "bc");
+        writeFrame(buf, ProtocolHeader.REQUEST, 3, "def");
+
+        Assertions.assertTrue(ch.writeInbound(buf));
+        RequestPayload r1 = ch.readInbound();
+        ResponsePayload r2 = ch.readInbound();
+        RequestPayload r3 = ch.readInbound();
+        Assertions.assertNull(ch.readInbound());
+
+        Assertions.assertEquals(1, r1.getXid());
+        Assertions.assertEquals("a", bodyOf(r1));
+        Assertions.assertEquals(2, r2.getXid());
+        Assertions.assertEquals(0x20, r2.getStatus());
+        Assertions.assertEquals("bc", bodyOf(r2));
+        Assertions.assertEquals(3, r3.getXid());
+        Assertions.assertEquals("def", bodyOf(r3));
+        Assertions.assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testPartialFrame() {
+        EmbeddedChannel ch = new EmbeddedChannel(new ProtocolDecoder());
+        ByteBuf frame = Unpooled.buffer();
+        writeFrame(frame, ProtocolHeader.REQUEST, 7, "hello");
+
+        // 逐字节写入, 直到最后一个字节前都不应该产生消息
+        while (frame.readableBytes() > 1) {
+            Assertions.assertFalse(ch.writeInbound(frame.readRetainedSlice(1)));
+        }
+        Assertions.assertTrue(ch.writeInbound(frame.readRetainedSlice(1)));
+        frame.release();
+
+        RequestPayload payload = ch.readInbound();
+        Assertions.assertEquals(7, payload.getXid());
+        Assertions.assertEquals("hello", bodyOf(payload));
+        Assertions.assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testIllegalMagic() {
+        EmbeddedChannel ch = new EmbeddedChannel(new ProtocolDecoder());
+        ByteBuf buf = Unpooled.buffer();
+        writeFrame(buf, ProtocolHeader.REQUEST, 1, "a");
+        buf.setShort(0, 0x1234);
+
+        DecoderException e = Assertions.assertThrows(DecoderException.class, () -> ch.writeInbound(buf));
+        Assertions.assertTrue(e instanceof CorruptedFrameException);
+    }
+
+    @Test
+    public void testBodyTooLarge() {
+        EmbeddedChannel ch = new EmbeddedChannel(new ProtocolDecoder());
+        ByteBuf buf = Unpooled.buffer();
+        // 只有协议头, 超长的 bodySize 在缓存 body 之前就应该被拒绝
+        buf.writeShort(ProtocolHeader.MAGIC_WORD)
+                .writeByte(ProtocolHeader.toSign((byte) 0, ProtocolHeader.REQUEST))
+                .writeByte(0)
+                .writeLong(1)
+                .writeInt(ProtocolHeader.MAX_BODY_SIZE + 1);
+
+        DecoderException e = Assertions.assertThrows(DecoderException.class, () -> ch.writeInbound(buf));
+        Assertions.assertTrue(e instanceof TooLongFrameException);
+    }
+}
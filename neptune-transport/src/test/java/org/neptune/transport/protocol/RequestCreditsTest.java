@@ -0,0 +1,152 @@
+package org.neptune.transport.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.neptune.transport.RequestPayload;
+import org.neptune.transport.ResponsePayload;
+import org.neptune.transport.Status;
+import org.neptune.transport.connection.NettyConnection;
+import org.neptune.transport.handler.AcceptorHandler;
+import org.neptune.transport.processor.ProviderProcessor;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * org.neptune.transport.protocol - RequestCreditsTest
+ *
+ * @author tony-is-coding
+ * @date 2026/10/18 23:30
+ */
+class RequestCreditsTest {
+
+    static final class RecordingProcessor implements ProviderProcessor {
+        final List<RequestPayload> handled = new ArrayList<>();
+
+        @Override
+        public void handleRequest(Channel channel, RequestPayload request) {
+            handled.add(request);
+        }
+
+        @Override
+        public void handleException(Channel channel, RequestPayload request, Status status, Throwable cause) {
+            request.release();
+        }
+
+        @Override
+        public void shutdownGracefully() {
+        }
+    }
+
+    private static RequestPayload request(long id) {
+        RequestPayload payload = RequestPayload.newInstance(id);
+        payload.setByteBuf(Unpooled.EMPTY_BUFFER);
+        return payload;
+    }
+
+    @Test
+    public void testHeaderExtension() {
+        long field = ProtocolHeader.withCredits(123456789L, 1024);
+        Assertions.assertEquals(123456789L, ProtocolHeader.idOf(field));
+        Assertions.assertEquals(1024, ProtocolHeader.creditsOf(field));
+        Assertions.assertEquals(RequestCredits.MAX_CREDITS,
+                ProtocolHeader.creditsOf(ProtocolHeader.withCredits(ProtocolHeader.ID_MASK, RequestCredits.MAX_CREDITS)));
+        Assertions.assertEquals(ProtocolHeader.ID_MASK, ProtocolHeader.idOf(-1L));
+    }
+
+    @Test
+    public void testGrantAndPauseOnServer() {
+        RecordingProcessor processor = new RecordingProcessor();
+        EmbeddedChannel server = new EmbeddedChannel(new ProtocolEncoder(), new AcceptorHandler(processor, 2));
+
+        // 连接建立时通过心跳帧授予初始信用
+        ByteBuf grant = server.readOutbound();
+        Assertions.assertEquals(2, ProtocolHeader.creditsOf(grant.getLong(4)));
+        grant.release();
+
+        server.writeInbound(request(1));
+        Assertions.assertTrue(server.config().isAutoRead());
+        // 信用用完后暂停读取, 已经读到的请求照常处理
+        server.writeInbound(request(2), request(3));
+        Assertions.assertEquals(3, processor.handled.size());
+        Assertions.assertFalse(server.config().isAutoRead());
+        Assertions.assertEquals(3, RequestCredits.of(server).outstanding());
+
+        // 每写出一个响应归还一个信用, 并捎带窗口
+        ResponsePayload response = ResponsePayload.newInstance(1);
+        response.setByteBuf(ProtocolEncoder.allocateFrame(server.alloc()));
+        server.writeOutbound(response);
+        ByteBuf frame = server.readOutbound();
+        Assertions.assertEquals(1, ProtocolHeader.idOf(frame.getLong(4)));
+        Assertions.assertEquals(2, ProtocolHeader.creditsOf(frame.getLong(4)));
+        Assertions.assertEquals(2, RequestCredits.of(server).outstanding());
+        Assertions.assertFalse(server.config().isAutoRead());
+        frame.release();
+
+        // 回到窗口以内, 恢复读取
+        response = ResponsePayload.newInstance(2);
+        response.setByteBuf(ProtocolEncoder.allocateFrame(server.alloc()));
+        server.writeOutbound(response);
+        ((ByteBuf) server.readOutbound()).release();
+        Assertions.assertTrue(server.config().isAutoRead());
+        for (RequestPayload payload : processor.handled) {
+            payload.release();
+        }
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDisabledKeepsInvokeIdUntouched() {
+        RecordingProcessor processor = new RecordingProcessor();
+        EmbeddedChannel server = new EmbeddedChannel(new ProtocolEncoder(), new AcceptorHandler(processor, 0));
+
+        // 不开启流控时不发授予信用的心跳, 响应的 invokeId 原样写出, 老客户端不受影响
+        Assertions.assertNull(server.readOutbound());
+        server.writeInbound(request(1), request(2), request(3));
+        Assertions.assertTrue(server.config().isAutoRead());
+        Assertions.assertNull(RequestCredits.of(server));
+
+        ResponsePayload response = ResponsePayload.newInstance(1);
+        response.setByteBuf(ProtocolEncoder.allocateFrame(server.alloc()));
+        server.writeOutbound(response);
+        ByteBuf frame = server.readOutbound();
+        Assertions.assertEquals(1L, frame.getLong(4));
+        frame.release();
+        for (RequestPayload payload : processor.handled) {
+            payload.release();
+        }
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testClientReceivesCredits() {
+        EmbeddedChannel client = new EmbeddedChannel(new ProtocolDecoder());
+        NettyConnection connection = new NettyConnection(client.newSucceededFuture(),
+                InetSocketAddress.createUnresolved("127.0.0.1", 8001), false);
+        Assertions.assertEquals(0, connection.creditWindow());
+        Assertions.assertTrue(connection.isWritable());
+
+        client.writeInbound(ProtocolEncoder.encodeHeartbeat(client.alloc(), Heartbeats.ACK, ProtocolHeader.withCredits(0, 16)));
+        Assertions.assertEquals(16, connection.creditWindow());
+
+        // 响应帧: invokeId 还原为低 48 位, 窗口随之更新
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeShort(ProtocolHeader.MAGIC_WORD)
+                .writeByte(ProtocolHeader.toSign((byte) 0, ProtocolHeader.RESPONSE))
+                .writeByte(Status.OK.value())
+                .writeLong(ProtocolHeader.withCredits(42, 8))
+                .writeInt(0);
+        client.writeInbound(frame);
+        ResponsePayload response = client.readInbound();
+        Assertions.assertEquals(42, response.getXid());
+        Assertions.assertEquals(8, connection.creditWindow());
+        response.release();
+        Assertions.assertFalse(client.finish());
+    }
+}